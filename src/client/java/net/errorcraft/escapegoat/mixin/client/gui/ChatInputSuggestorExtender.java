@@ -0,0 +1,56 @@
+package net.errorcraft.escapegoat.mixin.client.gui;
+
+import net.errorcraft.escapegoat.LiteralTokenizer;
+import net.errorcraft.escapegoat.StringEscapers;
+import net.minecraft.client.gui.screen.ChatInputSuggestor;
+import net.minecraft.client.gui.widget.TextFieldWidget;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ChatInputSuggestor.class)
+public class ChatInputSuggestorExtender {
+    @Shadow
+    @Final
+    TextFieldWidget textField;
+
+    @Shadow
+    @Final
+    private boolean slashOptional;
+
+    // Belongs to this suggestor, so the last command is let go together with its screen.
+    // Keeps the literals that were not edited unescaped, instead of unescaping them again on every keystroke.
+    @Unique
+    private @Nullable LiteralTokenizer literals;
+
+    @Inject(
+        method = "refresh",
+        at = @At("HEAD")
+    )
+    private void updateStringLiterals(CallbackInfo info) {
+        String text = this.textField.getText();
+        if (!LiteralTokenizer.isCommand(text, this.slashOptional)) {
+            return;
+        }
+        if (this.literals == null) {
+            this.literals = new LiteralTokenizer(StringEscapers.SNBT);
+        }
+        this.literals.update(text);
+        this.literals.startParsing();
+    }
+
+    @Inject(
+        method = "refresh",
+        at = @At("RETURN")
+    )
+    private void finishParsingStringLiterals(CallbackInfo info) {
+        if (this.literals != null) {
+            this.literals.finishParsing();
+        }
+    }
+}
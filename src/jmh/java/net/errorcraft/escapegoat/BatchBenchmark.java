@@ -0,0 +1,81 @@
+package net.errorcraft.escapegoat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Every operation escapes or unescapes the whole batch, either one value after the other, through a session or with the batch methods
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+    private static final int LENGTH = 64;
+
+    @Param({"SNBT"})
+    public Preset preset;
+
+    @Param({"ASCII", "ESCAPE_DENSE"})
+    public Corpus corpus;
+
+    @Param({"1000", "50000"})
+    public int size;
+
+    private StringEscaper escaper;
+    private List<String> values;
+    private List<String> escapedValues;
+
+    @Setup
+    public void setup() {
+        this.escaper = this.preset.escaper();
+        this.values = Arrays.asList(this.corpus.generate(this.size, LENGTH));
+        this.escapedValues = this.values.stream().map(this.escaper::escape).toList();
+    }
+
+    @Benchmark
+    public void escapeLoop(Blackhole blackhole) {
+        for (String value : this.values) {
+            blackhole.consume(this.escaper.escape(value));
+        }
+    }
+
+    @Benchmark
+    public void escapeSessionLoop(Blackhole blackhole) {
+        EscapeSession session = this.escaper.session();
+        for (String value : this.values) {
+            blackhole.consume(session.escape(value));
+        }
+    }
+
+    @Benchmark
+    public List<String> escapeAll() {
+        return this.escaper.escapeAll(this.values);
+    }
+
+    @Benchmark
+    public void unescapeLoop(Blackhole blackhole) {
+        for (String escapedValue : this.escapedValues) {
+            blackhole.consume(this.escaper.tryUnescape(escapedValue));
+        }
+    }
+
+    @Benchmark
+    public List<UnescapeResult> unescapeAll() {
+        return this.escaper.unescapeAll(this.escapedValues, UnescapeContext.DEFAULT);
+    }
+}
@@ -0,0 +1,69 @@
+package net.errorcraft.escapegoat;
+
+import java.util.Random;
+
+// Kinds of text the benchmarks escape and unescape, generated with a fixed seed so every run gets the same input
+public enum Corpus {
+    // Chat messages, names and other plain text that does not need escaping
+    ASCII(0.0, 0.0, 0.0, 0.02),
+    // Text with a lot of line breaks, tabs and other control characters
+    CONTROL_HEAVY(0.3, 0.0, 0.0, 0.02),
+    // Text with a lot of emoji and other characters outside of the BMP
+    SURROGATE_HEAVY(0.0, 0.4, 0.1, 0.02),
+    // Text like nested SNBT or JSON with a lot of quotes and backslashes
+    ESCAPE_DENSE(0.05, 0.0, 0.0, 0.4);
+
+    private static final String ASCII_CODE_POINTS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 .,:;!?-_()[]{}";
+    private static final String CONTROL_CODE_POINTS = "\n\n\n\t\r\b\f\u0000\u0001\u001B\u007F";
+    private static final int[] SUPPLEMENTARY_CODE_POINTS = {0x1F60A, 0x1F600, 0x1F44D, 0x2728, 0x1F525, 0x10348};
+    private static final String BMP_CODE_POINTS = "éüñßøΩжあ漢★€";
+    private static final String ESCAPED_CODE_POINTS = "\"'\\\\\"'";
+    private static final long SEED = 0x5EED;
+
+    private final double controlChance;
+    private final double supplementaryChance;
+    private final double bmpChance;
+    private final double escapedChance;
+
+    Corpus(double controlChance, double supplementaryChance, double bmpChance, double escapedChance) {
+        this.controlChance = controlChance;
+        this.supplementaryChance = supplementaryChance;
+        this.bmpChance = bmpChance;
+        this.escapedChance = escapedChance;
+    }
+
+    // Generates strings of the given amount of code points
+    public String[] generate(int count, int length) {
+        Random random = new Random(SEED + this.ordinal());
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder builder = new StringBuilder(length * 2);
+            for (int j = 0; j < length; j++) {
+                builder.appendCodePoint(this.nextCodePoint(random));
+            }
+            values[i] = builder.toString();
+        }
+        return values;
+    }
+
+    private int nextCodePoint(Random random) {
+        double chance = random.nextDouble();
+        if ((chance -= this.controlChance) < 0.0) {
+            return pick(random, CONTROL_CODE_POINTS);
+        }
+        if ((chance -= this.supplementaryChance) < 0.0) {
+            return SUPPLEMENTARY_CODE_POINTS[random.nextInt(SUPPLEMENTARY_CODE_POINTS.length)];
+        }
+        if ((chance -= this.bmpChance) < 0.0) {
+            return pick(random, BMP_CODE_POINTS);
+        }
+        if (chance - this.escapedChance < 0.0) {
+            return pick(random, ESCAPED_CODE_POINTS);
+        }
+        return pick(random, ASCII_CODE_POINTS);
+    }
+
+    private static int pick(Random random, String codePoints) {
+        return codePoints.charAt(random.nextInt(codePoints.length()));
+    }
+}
@@ -0,0 +1,18 @@
+package net.errorcraft.escapegoat;
+
+// The escapers of StringEscapers by name, to use them as a benchmark parameter
+public enum Preset {
+    JSON(StringEscapers.JSON),
+    JAVA(StringEscapers.JAVA),
+    SNBT(StringEscapers.SNBT);
+
+    private final StringEscaper escaper;
+
+    Preset(StringEscaper escaper) {
+        this.escaper = escaper;
+    }
+
+    public StringEscaper escaper() {
+        return this.escaper;
+    }
+}
@@ -0,0 +1,102 @@
+package net.errorcraft.escapegoat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Every operation escapes or unescapes a single string of the corpus, the subclasses run the same benchmarks with different amounts of threads
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public abstract class StringEscaperBenchmark {
+    private static final int VALUES = 64;
+
+    @Param({"JSON", "JAVA", "SNBT"})
+    public Preset preset;
+
+    @Param({"ASCII", "CONTROL_HEAVY", "SURROGATE_HEAVY", "ESCAPE_DENSE"})
+    public Corpus corpus;
+
+    @Param({"16", "256"})
+    public int length;
+
+    private StringEscaper escaper;
+    private String[] values;
+    private String[] escapedValues;
+    private final StringBuilder output = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        this.escaper = this.preset.escaper();
+        this.values = this.corpus.generate(VALUES, this.length);
+        this.escapedValues = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            this.escapedValues[i] = this.escaper.escape(this.values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void escape(Blackhole blackhole) {
+        for (String value : this.values) {
+            blackhole.consume(this.escaper.escape(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void escapeTo(Blackhole blackhole) {
+        for (String value : this.values) {
+            this.output.setLength(0);
+            blackhole.consume(this.escaper.escapeTo(value, this.output));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void unescape(Blackhole blackhole) {
+        for (String escapedValue : this.escapedValues) {
+            blackhole.consume(this.escaper.unescape(escapedValue));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void unescapeTo(Blackhole blackhole) {
+        for (String escapedValue : this.escapedValues) {
+            this.output.setLength(0);
+            blackhole.consume(this.escaper.unescapeTo(escapedValue, this.output, UnescapeContext.DEFAULT));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void validate(Blackhole blackhole) {
+        for (String escapedValue : this.escapedValues) {
+            blackhole.consume(this.escaper.validate(escapedValue, UnescapeContext.DEFAULT));
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends StringEscaperBenchmark {}
+
+    // The escapers are shared between threads, so this shows whether anything in them is contended
+    @Threads(4)
+    public static class FourThreads extends StringEscaperBenchmark {}
+}
@@ -0,0 +1,99 @@
+package net.errorcraft.escapegoat.mixin.nbt;
+
+import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.errorcraft.escapegoat.Corpus;
+import net.errorcraft.escapegoat.StringEscapers;
+import net.errorcraft.escapegoat.UnescapeContext;
+import net.errorcraft.escapegoat.UnescapeResult;
+import net.minecraft.nbt.NbtString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares what the SNBT mixins do against the vanilla code they replace.
+// Mixins are not applied here, so NbtString.escape and StringReader.readQuotedString are the vanilla implementations.
+// Both sides unescape the output of the vanilla escape, as vanilla cannot read most of the escape sequences of the SNBT escaper.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public abstract class SnbtBenchmark {
+    private static final int VALUES = 64;
+
+    @Param({"ASCII", "CONTROL_HEAVY", "SURROGATE_HEAVY", "ESCAPE_DENSE"})
+    public Corpus corpus;
+
+    @Param({"16", "256"})
+    public int length;
+
+    private String[] values;
+    private String[] escapedValues;
+    private StringReader reader;
+    private final UnescapeContext context = new UnescapeContext(false, (readCodePoints, readChars) -> this.reader.setCursor(this.reader.getCursor() + readChars));
+
+    @Setup
+    public void setup() {
+        this.values = this.corpus.generate(VALUES, this.length);
+        this.escapedValues = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            this.escapedValues[i] = NbtString.escape(this.values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void vanillaEscape(Blackhole blackhole) {
+        for (String value : this.values) {
+            blackhole.consume(NbtString.escape(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void escaperEscape(Blackhole blackhole) {
+        for (String value : this.values) {
+            blackhole.consume(StringEscapers.SNBT.escape(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void vanillaReadQuotedString(Blackhole blackhole) throws CommandSyntaxException {
+        for (String escapedValue : this.escapedValues) {
+            blackhole.consume(new StringReader(escapedValue).readQuotedString());
+        }
+    }
+
+    // The same as StringNbtReaderExtender, including moving the cursor of the reader in the callback
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void escaperUnescape(Blackhole blackhole) {
+        for (String escapedValue : this.escapedValues) {
+            this.reader = new StringReader(escapedValue);
+            UnescapeResult result = StringEscapers.SNBT.tryUnescape(this.reader.getString(), this.reader.getCursor(), this.reader.getTotalLength(), this.context);
+            blackhole.consume(result.value());
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends SnbtBenchmark {}
+
+    @Threads(4)
+    public static class FourThreads extends SnbtBenchmark {}
+}
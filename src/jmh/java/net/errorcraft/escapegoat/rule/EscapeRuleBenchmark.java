@@ -0,0 +1,137 @@
+package net.errorcraft.escapegoat.rule;
+
+import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Measures a single rule on its own, without the lookup tables and trie of StringEscaper in front of it
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public abstract class EscapeRuleBenchmark {
+    @Param({"CHARACTER", "PREFER_SURROUNDER_CHARACTER", "EMPTY", "UNICODE_UTF16_HEXADECIMAL", "UNICODE_UTF32_HEXADECIMAL", "UNICODE_UTF8_OCTAL"})
+    public Rule rule;
+
+    private EscapeRule escapeRule;
+    private int codePoint;
+    private int surrounderCodePoint;
+    private CodePointReader reader;
+    private final StringBuilder output = new StringBuilder();
+    private final CodePointSink outputSink = CodePointSink.of(this.output);
+    private final CountingSink countingSink = new CountingSink();
+
+    @Setup
+    public void setup() {
+        this.escapeRule = this.rule.escapeRule;
+        this.codePoint = this.rule.codePoint;
+        this.surrounderCodePoint = this.rule.surrounderCodePoint;
+        this.reader = new CodePointReader(this.rule.sequence);
+    }
+
+    @Benchmark
+    public int escapeTo() {
+        this.countingSink.count = 0;
+        this.escapeRule.escapeTo(this.codePoint, this.surrounderCodePoint, this.countingSink);
+        return this.countingSink.count;
+    }
+
+    @Benchmark
+    public int unescapeTo() {
+        this.reader.index(0);
+        this.output.setLength(0);
+        this.escapeRule.unescapeTo(this.reader, this.surrounderCodePoint, this.outputSink);
+        return this.output.length();
+    }
+
+    @Benchmark
+    public boolean shouldBeEscaped() {
+        return this.escapeRule.shouldBeEscaped(this.codePoint, this.surrounderCodePoint);
+    }
+
+    public enum Rule {
+        CHARACTER(CharacterEscapeRule.ofAlwaysEscape('\n', "n"), '\n', EscapeRule.NO_SURROUNDER, "n"),
+        PREFER_SURROUNDER_CHARACTER(PreferSurrounderCharacterEscapeRule.builder().add('\'', "'").add('"', "\"").build(), '\'', '\'', "'"),
+        EMPTY(EmptyEscapeRule.of("\n"), '\n', EscapeRule.NO_SURROUNDER, "\n"),
+        UNICODE_UTF16_HEXADECIMAL(UnicodeEscapeRule.builder(codePoint -> codePoint >= 0x80)
+            .prefix("u")
+            .transformation(UnicodeEscapeRule.Transformation.UTF16)
+            .format(UnicodeEscapeRule.Format.HEXADECIMAL)
+            .length(4)
+            .build(), 0x1F60A, EscapeRule.NO_SURROUNDER, "ud83d"),
+        UNICODE_UTF32_HEXADECIMAL(UnicodeEscapeRule.builder(codePoint -> codePoint >= 0x80)
+            .prefix("u{")
+            .suffix("}")
+            .transformation(UnicodeEscapeRule.Transformation.UTF32)
+            .format(UnicodeEscapeRule.Format.HEXADECIMAL)
+            .maxLength(6)
+            .build(), 0x1F60A, EscapeRule.NO_SURROUNDER, "u{1F60A}"),
+        UNICODE_UTF8_OCTAL(UnicodeEscapeRule.builder(codePoint -> codePoint >= 0x80)
+            .transformation(UnicodeEscapeRule.Transformation.UTF8)
+            .format(UnicodeEscapeRule.Format.OCTAL)
+            .minLength(1)
+            .maxLength(3)
+            .maxCodePoint(255)
+            .build(), 0x1F60A, EscapeRule.NO_SURROUNDER, "360");
+
+        private final EscapeRule escapeRule;
+        private final int codePoint;
+        private final int surrounderCodePoint;
+        // Escape sequence without the escape prefix, as the rules get it from StringEscaper
+        private final String sequence;
+
+        Rule(EscapeRule escapeRule, int codePoint, int surrounderCodePoint, String sequence) {
+            this.escapeRule = escapeRule;
+            this.codePoint = codePoint;
+            this.surrounderCodePoint = surrounderCodePoint;
+            this.sequence = sequence;
+        }
+    }
+
+    // Only counts what it gets, so the benchmark measures the rule rather than building output
+    private static class CountingSink implements EscapeRule.SequenceSink {
+        private int count;
+
+        @Override
+        public void startSequence() {}
+
+        @Override
+        public void endSequence() {}
+
+        @Override
+        public void append(char c) {
+            this.count++;
+        }
+
+        @Override
+        public void appendCodePoint(int codePoint) {
+            this.count += Character.charCount(codePoint);
+        }
+
+        @Override
+        public void append(CharSequence value, int start, int end) {
+            this.count += end - start;
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends EscapeRuleBenchmark {}
+
+    @Threads(4)
+    public static class FourThreads extends EscapeRuleBenchmark {}
+}
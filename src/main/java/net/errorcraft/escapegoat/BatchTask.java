@@ -0,0 +1,64 @@
+package net.errorcraft.escapegoat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Maps every value of a list in order, splitting the list in halves across the common fork join pool until the parts are no larger than the threshold.
+// Every part creates its own worker, so workers can reuse scratch buffers between the values of their part without being shared between threads.
+class BatchTask<T, R> extends RecursiveAction {
+    private final List<T> values;
+    private final Object[] results;
+    private final Supplier<Function<T, R>> workerFactory;
+    private final int threshold;
+    private final int start;
+    private final int end;
+
+    private BatchTask(List<T> values, Object[] results, Supplier<Function<T, R>> workerFactory, int threshold, int start, int end) {
+        this.values = values;
+        this.results = results;
+        this.workerFactory = workerFactory;
+        this.threshold = threshold;
+        this.start = start;
+        this.end = end;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T, R> List<R> map(List<T> values, Supplier<Function<T, R>> workerFactory, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1, got " + threshold);
+        }
+        if (!(values instanceof RandomAccess)) {
+            values = new ArrayList<>(values);
+        }
+        Object[] results = new Object[values.size()];
+        if (results.length <= threshold || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+            new BatchTask<>(values, results, workerFactory, results.length, 0, results.length).compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(new BatchTask<>(values, results, workerFactory, threshold, 0, results.length));
+        }
+        return Collections.unmodifiableList(Arrays.asList((R[]) results));
+    }
+
+    @Override
+    protected void compute() {
+        if (this.end - this.start <= this.threshold) {
+            Function<T, R> worker = this.workerFactory.get();
+            for (int i = this.start; i < this.end; i++) {
+                this.results[i] = worker.apply(this.values.get(i));
+            }
+            return;
+        }
+        int middle = (this.start + this.end) >>> 1;
+        invokeAll(
+            new BatchTask<>(this.values, this.results, this.workerFactory, this.threshold, this.start, middle),
+            new BatchTask<>(this.values, this.results, this.workerFactory, this.threshold, middle, this.end)
+        );
+    }
+}
@@ -5,18 +5,44 @@ import org.jetbrains.annotations.Nullable;
 import java.util.function.IntPredicate;
 
 public class CodePointReader {
-    private final int[] codePoints;
+    private CharSequence value;
+    private int end;
     private int index;
+    private boolean hitEnd;
+    private @Nullable UnescapeError error;
 
-    public CodePointReader(String value) {
+    public CodePointReader(CharSequence value) {
         this(value, 0);
     }
 
-    public CodePointReader(String value, int index) {
-        this.codePoints = value.codePoints().toArray();
+    public CodePointReader(CharSequence value, int index) {
+        this(value, index, value.length());
+    }
+
+    // Reads the region of the value from index to end, where index is the position of a char rather than a code point
+    public CodePointReader(CharSequence value, int index, int end) {
+        this.value = value;
+        this.end = end;
         this.index = index;
     }
 
+    // Lets the unescape state reuse its reader for the next value
+    void reset(CharSequence value, int index, int end) {
+        this.value = value;
+        this.end = end;
+        this.index = index;
+        this.hitEnd = false;
+        this.error = null;
+    }
+
+    public CharSequence value() {
+        return this.value;
+    }
+
+    public int end() {
+        return this.end;
+    }
+
     public int index() {
         return this.index;
     }
@@ -25,38 +51,83 @@ public class CodePointReader {
         this.index = index;
     }
 
+    // Whether anything tried to read past the end since the last clear, meaning that the result could be different if there was more input
+    public boolean hitEnd() {
+        return this.hitEnd;
+    }
+
+    public void clearHitEnd() {
+        this.hitEnd = false;
+    }
+
+    // Lets escape rules report why a sequence is invalid without throwing, so other rules can be tried without the cost of an exception
+    public void fail(UnescapeError error) {
+        this.error = error;
+    }
+
+    // Returns the error reported since the last time it was taken, or null if there is none
+    public @Nullable UnescapeError takeError() {
+        UnescapeError error = this.error;
+        this.error = null;
+        return error;
+    }
+
+    // Returns the code point at the given amount of chars after the current index, or -1 if there is none
+    public int peek(int offset) {
+        int index = this.index + offset;
+        if (index >= this.end) {
+            this.hitEnd = true;
+            return -1;
+        }
+        return this.codePointAt(index);
+    }
+
     public boolean trySkipNext(@Nullable String value) {
         if (value == null) {
             return true;
         }
-        int[] valueCodePoints = value.codePoints().toArray();
-        if (!this.canRead(valueCodePoints.length)) {
-            return false;
-        }
-        for (int i = 0; i < valueCodePoints.length; i++) {
-            if (valueCodePoints[i] != this.codePoints[this.index + i]) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (this.index + i >= this.end) {
+                this.hitEnd = true;
+                return false;
+            }
+            if (value.charAt(i) != this.value.charAt(this.index + i)) {
                 return false;
             }
         }
-        this.index += valueCodePoints.length;
+        this.index += length;
         return true;
     }
 
     public String read(IntPredicate isValidCodePoint, int minLength, int maxLength) throws UnescapeStringException {
         int foundCodePoints = 0;
-        StringBuilder builder = new StringBuilder();
-        while (foundCodePoints < maxLength && this.canRead(foundCodePoints + 1) && isValidCodePoint.test(this.codePoints[this.index + foundCodePoints])) {
-            builder.appendCodePoint(this.codePoints[this.index + foundCodePoints]);
+        int readIndex = this.index;
+        while (foundCodePoints < maxLength) {
+            if (readIndex >= this.end) {
+                this.hitEnd = true;
+                break;
+            }
+            int codePoint = this.codePointAt(readIndex);
+            if (!isValidCodePoint.test(codePoint)) {
+                break;
+            }
+            readIndex += Character.charCount(codePoint);
             foundCodePoints++;
         }
         if (foundCodePoints < minLength) {
-            throw new UnescapeStringException("Sequence must be at least " + minLength + " code point(s) long, got " + foundCodePoints + " instead: " + builder);
+            throw UnescapeError.sequenceTooShort(this.index, minLength, foundCodePoints, this.value, this.index, readIndex).toException();
         }
-        this.index += foundCodePoints;
-        return builder.toString();
+        String read = this.value.subSequence(this.index, readIndex).toString();
+        this.index = readIndex;
+        return read;
     }
 
-    private boolean canRead(int codePointAmount) {
-        return this.index + codePointAmount <= this.codePoints.length;
+    private int codePointAt(int index) {
+        if (index + 1 == this.end && Character.isHighSurrogate(this.value.charAt(index))) {
+            // The low surrogate could be right after the end
+            this.hitEnd = true;
+        }
+        return CodePointUtil.codePointAt(this.value, index, this.end);
     }
 }
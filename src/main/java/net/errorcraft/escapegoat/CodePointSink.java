@@ -0,0 +1,45 @@
+package net.errorcraft.escapegoat;
+
+// Receives unescaped text, so escape rules can write their output straight into the output of the caller
+public interface CodePointSink {
+    // Drops everything, for when only whether the input can be unescaped matters
+    CodePointSink DISCARD = new CodePointSink() {
+        @Override
+        public void append(char c) {}
+
+        @Override
+        public void appendCodePoint(int codePoint) {}
+
+        @Override
+        public void append(CharSequence value, int start, int end) {}
+    };
+
+    void append(char c);
+    void appendCodePoint(int codePoint);
+    void append(CharSequence value, int start, int end);
+
+    default void append(CharSequence value) {
+        this.append(value, 0, value.length());
+    }
+
+    static CodePointSink of(StringBuilder builder) {
+        return new StringBuilderSink(builder);
+    }
+
+    record StringBuilderSink(StringBuilder builder) implements CodePointSink {
+        @Override
+        public void append(char c) {
+            this.builder.append(c);
+        }
+
+        @Override
+        public void appendCodePoint(int codePoint) {
+            this.builder.appendCodePoint(codePoint);
+        }
+
+        @Override
+        public void append(CharSequence value, int start, int end) {
+            this.builder.append(value, start, end);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package net.errorcraft.escapegoat;
 
+import java.io.IOException;
+
 public class CodePointUtil {
     private CodePointUtil() {}
 
@@ -15,6 +17,18 @@ public class CodePointUtil {
         return builder.toString();
     }
 
+    public static String toStringEllipsis(CharSequence value, int index, int end) {
+        int ellipsisIndex = index;
+        for (int i = 0; i < 4 && ellipsisIndex < end; i++) {
+            ellipsisIndex += Character.charCount(codePointAt(value, ellipsisIndex, end));
+        }
+        String result = value.subSequence(index, ellipsisIndex).toString();
+        if (ellipsisIndex < end) {
+            return result + "...";
+        }
+        return result;
+    }
+
     public static String toString(Integer... codePoints) {
         StringBuilder builder = new StringBuilder();
         for (Integer codePoint : codePoints) {
@@ -35,6 +49,18 @@ public class CodePointUtil {
         return builder.toString();
     }
 
+    // Like Character.codePointAt, but does not combine a high surrogate at the end of the region with a low surrogate after it
+    public static int codePointAt(CharSequence value, int index, int end) {
+        char high = value.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < end) {
+            char low = value.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(high, low);
+            }
+        }
+        return high;
+    }
+
     public static void append(StringBuilder builder, Integer codePoint) {
         if (codePoint == null) {
             return;
@@ -42,6 +68,77 @@ public class CodePointUtil {
         builder.appendCodePoint(codePoint);
     }
 
+    // Returns the amount of chars appended
+    public static int append(Appendable output, int codePoint) throws IOException {
+        if (Character.isBmpCodePoint(codePoint)) {
+            output.append((char) codePoint);
+            return 1;
+        }
+        output.append(Character.highSurrogate(codePoint));
+        output.append(Character.lowSurrogate(codePoint));
+        return 2;
+    }
+
+    // Surrogates without their other half are encoded as '?', like String.getBytes does
+    public static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        if (isSurrogate(codePoint)) {
+            return 1;
+        }
+        if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    public static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = codePointAt(value, i, value.length());
+            length += utf8Length(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return length;
+    }
+
+    // Returns the index after the last written byte, the output must have room for utf8Length(codePoint) bytes
+    public static int putUtf8(byte[] output, int offset, int codePoint) {
+        if (codePoint < 0x80) {
+            output[offset] = (byte) codePoint;
+            return offset + 1;
+        }
+        if (codePoint < 0x800) {
+            output[offset] = (byte) (0xC0 | codePoint >> 6);
+            output[offset + 1] = (byte) (0x80 | codePoint & 0x3F);
+            return offset + 2;
+        }
+        if (isSurrogate(codePoint)) {
+            output[offset] = '?';
+            return offset + 1;
+        }
+        if (codePoint < 0x10000) {
+            output[offset] = (byte) (0xE0 | codePoint >> 12);
+            output[offset + 1] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            output[offset + 2] = (byte) (0x80 | codePoint & 0x3F);
+            return offset + 3;
+        }
+        output[offset] = (byte) (0xF0 | codePoint >> 18);
+        output[offset + 1] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        output[offset + 2] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        output[offset + 3] = (byte) (0x80 | codePoint & 0x3F);
+        return offset + 4;
+    }
+
+    // Unlike Character.isSurrogate, does not match code points outside of the BMP that end in the same bits as a surrogate
+    public static boolean isSurrogate(int codePoint) {
+        return codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE;
+    }
+
     public static int charCount(int[] codePoints, int length) {
         if (length < 0) {
             throw new IllegalArgumentException("length must be at least 0: " + length);
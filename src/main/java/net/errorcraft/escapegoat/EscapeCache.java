@@ -0,0 +1,200 @@
+package net.errorcraft.escapegoat;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Remembers the escaped values of an escaper, evicting the least recently used ones once the cache holds too many values or chars.
+// The cache is split into stripes by hash that each have their own lock and bounds, so threads escaping different values rarely wait on each other.
+public class EscapeCache {
+    private final StringEscaper escaper;
+    private final int minLength;
+    private final int maxLength;
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private EscapeCache(StringEscaper escaper, int minLength, int maxLength, int stripeCount, int maxSize, long maxWeight) {
+        this.escaper = escaper;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.stripes = new Stripe[stripeCount];
+        int stripeMaxSize = Math.max(1, (maxSize + stripeCount - 1) / stripeCount);
+        long stripeMaxWeight = Math.max(1, (maxWeight + stripeCount - 1) / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(stripeMaxSize, stripeMaxWeight);
+        }
+    }
+
+    public static Builder builder(StringEscaper escaper) {
+        return new Builder(escaper);
+    }
+
+    // Values shorter than the minimum length or longer than the maximum length are escaped without going through the cache
+    public String escape(String value) {
+        int length = value.length();
+        if (length < this.minLength || length > this.maxLength) {
+            return this.escaper.escape(value);
+        }
+        Stripe stripe = this.stripe(value);
+        String escaped;
+        synchronized (stripe) {
+            escaped = stripe.get(value);
+        }
+        if (escaped != null) {
+            this.hits.increment();
+            return escaped;
+        }
+        this.misses.increment();
+        // Escape outside the lock, two threads missing the same value at once only costs an extra escape
+        escaped = this.escaper.escape(value);
+        int evicted;
+        synchronized (stripe) {
+            evicted = stripe.add(value, escaped);
+        }
+        if (evicted > 0) {
+            this.evictions.add(evicted);
+        }
+        return escaped;
+    }
+
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    public long evictions() {
+        return this.evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    // The amount of chars of every cached value and its escaped value together
+    public long weight() {
+        long weight = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                weight += stripe.weight;
+            }
+        }
+        return weight;
+    }
+
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+                stripe.weight = 0;
+            }
+        }
+    }
+
+    private Stripe stripe(String value) {
+        int hash = value.hashCode();
+        // Spread the higher bits, as the amount of stripes is a power of two
+        hash ^= hash >>> 16;
+        return this.stripes[hash & (this.stripes.length - 1)];
+    }
+
+    private static long weight(String value, String escaped) {
+        return (long) value.length() + escaped.length();
+    }
+
+    // Access ordered, so iterating starts at the least recently used value
+    private static class Stripe extends LinkedHashMap<String, String> {
+        private final int maxSize;
+        private final long maxWeight;
+        private long weight;
+
+        private Stripe(int maxSize, long maxWeight) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.maxWeight = maxWeight;
+        }
+
+        // Returns the amount of evicted values
+        private int add(String value, String escaped) {
+            String previous = this.put(value, escaped);
+            if (previous != null) {
+                this.weight -= EscapeCache.weight(value, previous);
+            }
+            this.weight += EscapeCache.weight(value, escaped);
+            int evicted = 0;
+            Iterator<Map.Entry<String, String>> iterator = this.entrySet().iterator();
+            // Never evicts the value that was just added, even if it is heavier than the stripe allows on its own
+            while ((this.size() > this.maxSize || this.weight > this.maxWeight) && this.size() > 1) {
+                Map.Entry<String, String> eldest = iterator.next();
+                this.weight -= EscapeCache.weight(eldest.getKey(), eldest.getValue());
+                iterator.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+    }
+
+    public static class Builder {
+        private final StringEscaper escaper;
+        private int minLength = 0;
+        private int maxLength = 1024;
+        private int stripes = 16;
+        private int maxSize = 4096;
+        private long maxWeight = 1 << 20;
+
+        private Builder(StringEscaper escaper) {
+            this.escaper = escaper;
+        }
+
+        public EscapeCache build() {
+            return new EscapeCache(this.escaper, this.minLength, this.maxLength, this.stripes, this.maxSize, this.maxWeight);
+        }
+
+        public Builder minLength(int minLength) {
+            this.minLength = minLength;
+            return this;
+        }
+
+        public Builder maxLength(int maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        // Rounded up to a power of two
+        public Builder stripes(int stripes) {
+            if (stripes < 1) {
+                throw new IllegalArgumentException("Amount of stripes must be at least 1, got " + stripes);
+            }
+            this.stripes = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+            return this;
+        }
+
+        public Builder maxSize(int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Maximum size must be at least 1, got " + maxSize);
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        // The maximum amount of chars of every cached value and its escaped value together
+        public Builder maxWeight(long maxWeight) {
+            if (maxWeight < 1) {
+                throw new IllegalArgumentException("Maximum weight must be at least 1, got " + maxWeight);
+            }
+            this.maxWeight = maxWeight;
+            return this;
+        }
+    }
+}
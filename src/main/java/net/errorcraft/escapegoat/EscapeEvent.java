@@ -0,0 +1,28 @@
+package net.errorcraft.escapegoat;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("escapegoat.Escape")
+@Label("Escape")
+@Category("Escapegoat")
+@Description("A string was escaped")
+@Threshold("20 ms")
+class EscapeEvent extends jdk.jfr.Event {
+    @Label("Escaper")
+    String escaper;
+
+    @Label("Input Length")
+    @Description("The length of the value in chars")
+    int inputLength;
+
+    @Label("Output Length")
+    @Description("The length of the escaped value in chars")
+    int outputLength;
+
+    @Label("Escaped Code Points")
+    int escapedCodePoints;
+}
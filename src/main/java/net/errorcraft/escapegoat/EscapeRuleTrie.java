@@ -0,0 +1,105 @@
+package net.errorcraft.escapegoat;
+
+import net.errorcraft.escapegoat.rule.EscapeRule;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+// Trie of the prefixes of every escape rule for a single surrounder, so only rules whose prefix matches the escape sequence get tried
+public class EscapeRuleTrie {
+    private final Node root = new Node();
+    private final int surrounderCodePoint;
+
+    public EscapeRuleTrie(EscapeRule[] escapeRules, Integer surrounderCodePoint) {
+        this.surrounderCodePoint = EscapeRule.toPrimitive(surrounderCodePoint);
+        for (EscapeRule escapeRule : escapeRules) {
+            String prefix = escapeRule.prefix(this.surrounderCodePoint);
+            if (prefix == null) {
+                continue;
+            }
+            Node node = this.root;
+            for (int codePoint : prefix.codePoints().toArray()) {
+                node = node.getOrCreateChild(codePoint);
+            }
+            node.addRule(escapeRule);
+        }
+    }
+
+    // Throws the error that tryUnescapeTo leaves in the reader
+    public boolean unescapeTo(CodePointReader reader, CodePointSink output) throws UnescapeStringException {
+        if (this.tryUnescapeTo(reader, output)) {
+            return true;
+        }
+        UnescapeError error = reader.takeError();
+        if (error != null) {
+            throw error.toException();
+        }
+        return false;
+    }
+
+    // Tries the rules with the longest matching prefix first, falling back to rules with shorter prefixes in the order they were added.
+    // Leaves the error of the rule with the longest prefix in the reader if none of the rules could unescape the sequence but at least one of them failed.
+    public boolean tryUnescapeTo(CodePointReader reader, CodePointSink output) {
+        return this.tryUnescapeTo(this.root, reader, output, reader.index(), 0);
+    }
+
+    private boolean tryUnescapeTo(Node node, CodePointReader reader, CodePointSink output, int start, int offset) {
+        UnescapeError failed = null;
+        int codePoint = reader.peek(offset);
+        Node child = node.child(codePoint);
+        if (child != null) {
+            if (this.tryUnescapeTo(child, reader, output, start, offset + Character.charCount(codePoint))) {
+                return true;
+            }
+            failed = reader.takeError();
+        }
+        for (EscapeRule escapeRule : node.rules) {
+            reader.index(start);
+            if (escapeRule.tryUnescapeTo(reader, this.surrounderCodePoint, output)) {
+                return true;
+            }
+            UnescapeError error = reader.takeError();
+            if (failed == null) {
+                failed = error;
+            }
+        }
+        reader.index(start);
+        if (failed != null) {
+            reader.fail(failed);
+        }
+        return false;
+    }
+
+    private static class Node {
+        private int[] keys = new int[0];
+        private Node[] children = new Node[0];
+        private EscapeRule[] rules = new EscapeRule[0];
+
+        private @Nullable Node child(int codePoint) {
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.keys[i] == codePoint) {
+                    return this.children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrCreateChild(int codePoint) {
+            Node child = this.child(codePoint);
+            if (child != null) {
+                return child;
+            }
+            child = new Node();
+            this.keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+            this.keys[this.keys.length - 1] = codePoint;
+            this.children = Arrays.copyOf(this.children, this.children.length + 1);
+            this.children[this.children.length - 1] = child;
+            return child;
+        }
+
+        private void addRule(EscapeRule escapeRule) {
+            this.rules = Arrays.copyOf(this.rules, this.rules.length + 1);
+            this.rules[this.rules.length - 1] = escapeRule;
+        }
+    }
+}
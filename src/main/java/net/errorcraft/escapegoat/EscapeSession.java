@@ -0,0 +1,105 @@
+package net.errorcraft.escapegoat;
+
+import org.jetbrains.annotations.Nullable;
+
+// Escapes and unescapes like its escaper, but reuses its buffers between calls instead of allocating new ones for every value.
+// Must not be used by multiple threads at once. Sessions are cheap to create, so every thread (virtual threads too) can simply create its own.
+public class EscapeSession {
+    private static final int INITIAL_CAPACITY = 64;
+    // Buffers that grew past this for a large value are dropped after the call, so a single large value does not keep that memory around
+    static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private final StringEscaper escaper;
+    private final StringEscaper.UnescapeState state = new StringEscaper.UnescapeState(true);
+    private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+    private char[] chars = new char[0];
+    private long[] escapedLengths = new long[0];
+
+    EscapeSession(StringEscaper escaper) {
+        this.escaper = escaper;
+    }
+
+    public String escape(String value) {
+        String escaped = this.escaper.escape(value, this);
+        this.trim();
+        return escaped;
+    }
+
+    public String unescape(String value) throws UnescapeStringException {
+        return this.tryUnescape(value).getOrThrow();
+    }
+
+    public String unescape(String value, UnescapeContext context) throws UnescapeStringException {
+        return this.tryUnescape(value, context).getOrThrow();
+    }
+
+    public UnescapeResult tryUnescape(String value) {
+        return this.tryUnescape(value, UnescapeContext.DEFAULT);
+    }
+
+    public UnescapeResult tryUnescape(String value, UnescapeContext context) {
+        return this.tryUnescape(value, 0, value.length(), context);
+    }
+
+    public UnescapeResult tryUnescape(CharSequence value, int start, int end, UnescapeContext context) {
+        UnescapeResult result = this.escaper.tryUnescape(value, start, end, context, this);
+        this.trim();
+        return result;
+    }
+
+    // Like StringEscaper.validate, but does not allocate anything for valid values
+    public int validate(CharSequence value, UnescapeContext context) throws UnescapeStringException {
+        UnescapeError error = this.tryValidate(value, 0, value.length(), context);
+        if (error != null) {
+            throw error.toException();
+        }
+        return this.state.readChars();
+    }
+
+    public @Nullable UnescapeError tryValidate(CharSequence value, int start, int end, UnescapeContext context) {
+        UnescapeError error = this.escaper.tryValidate(value, start, end, context, this);
+        this.trim();
+        return error;
+    }
+
+    // The builder is empty, but could still contain chars from an earlier call past its length
+    StringBuilder builder(int capacity) {
+        this.builder.setLength(0);
+        this.builder.ensureCapacity(capacity);
+        return this.builder;
+    }
+
+    // Has room for at least the given amount of chars, but could contain chars from an earlier call
+    char[] chars(int length) {
+        if (this.chars.length < length) {
+            this.chars = new char[Math.max(length, this.chars.length * 2)];
+        }
+        return this.chars;
+    }
+
+    long[] escapedLengths(int count) {
+        if (this.escapedLengths.length < count) {
+            this.escapedLengths = new long[count];
+        }
+        return this.escapedLengths;
+    }
+
+    StringEscaper.UnescapeState state() {
+        this.state.reset();
+        return this.state;
+    }
+
+    int retainedCapacity() {
+        return Math.max(this.builder.capacity(), this.chars.length);
+    }
+
+    private void trim() {
+        if (this.builder.capacity() > MAX_RETAINED_CAPACITY) {
+            this.builder = new StringBuilder(INITIAL_CAPACITY);
+        }
+        if (this.chars.length > MAX_RETAINED_CAPACITY) {
+            this.chars = new char[0];
+        }
+        this.state.trim(MAX_RETAINED_CAPACITY);
+    }
+}
@@ -0,0 +1,176 @@
+package net.errorcraft.escapegoat;
+
+import net.errorcraft.escapegoat.rule.EscapeRule;
+import net.errorcraft.escapegoat.scan.AsciiScanner;
+import net.errorcraft.escapegoat.scan.AsciiScanners;
+import org.jetbrains.annotations.Nullable;
+
+// Precomputed escaped output per code point for a single surrounder: a flat table for ASCII, and lazily computed blocks of 256 code points for the rest
+public class EscapeTable {
+    private static final int ASCII_SIZE = 0x80;
+    private static final int BLOCK_SHIFT = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int BLOCK_COUNT = (Character.MAX_CODE_POINT >>> BLOCK_SHIFT) + 1;
+    private static final Block PASS_THROUGH_BLOCK = new Block(null, null);
+
+    private final int escapePrefixCodePoint;
+    private final Integer escapeSuffixCodePoint;
+    private final EscapeRule[] escapeRules;
+    private final int surrounderCodePoint;
+    private final String[] asciiEscaped = new String[ASCII_SIZE];
+    private final boolean[] asciiForced = new boolean[ASCII_SIZE];
+    private final boolean[] asciiUnescapeStops = new boolean[ASCII_SIZE];
+    private final Block[] blocks = new Block[BLOCK_COUNT];
+    private final @Nullable AsciiScanner scanner;
+    private final @Nullable AsciiScanner unescapeScanner;
+
+    public EscapeTable(int escapePrefixCodePoint, Integer escapeSuffixCodePoint, EscapeRule[] escapeRules, Integer surrounderCodePoint) {
+        this.escapePrefixCodePoint = escapePrefixCodePoint;
+        this.escapeSuffixCodePoint = escapeSuffixCodePoint;
+        this.escapeRules = escapeRules;
+        this.surrounderCodePoint = EscapeRule.toPrimitive(surrounderCodePoint);
+        EscapedSink sink = new EscapedSink();
+        for (int codePoint = 0; codePoint < ASCII_SIZE; codePoint++) {
+            this.asciiEscaped[codePoint] = this.computeEscaped(codePoint, sink);
+            this.asciiForced[codePoint] = this.computeShouldBeEscaped(codePoint);
+        }
+        boolean[] stops = new boolean[ASCII_SIZE];
+        for (int codePoint = 0; codePoint < ASCII_SIZE; codePoint++) {
+            stops[codePoint] = this.asciiEscaped[codePoint] != null;
+        }
+        this.scanner = AsciiScanners.of(stops);
+        for (int codePoint = 0; codePoint < ASCII_SIZE; codePoint++) {
+            this.asciiUnescapeStops[codePoint] = this.computeIsUnescapeStop(codePoint);
+        }
+        this.unescapeScanner = AsciiScanners.of(this.asciiUnescapeStops);
+    }
+
+    public @Nullable String escaped(int codePoint) {
+        if (codePoint < ASCII_SIZE) {
+            return this.asciiEscaped[codePoint];
+        }
+        Block block = this.block(codePoint);
+        String[] escaped = block.escaped();
+        return escaped == null ? null : escaped[codePoint & BLOCK_MASK];
+    }
+
+    // Stops at every ASCII char that is escaped, or null if there is no scanner that is faster than looking up every char in the table
+    @Nullable AsciiScanner scanner() {
+        return this.scanner;
+    }
+
+    // Stops at every ASCII char that ends a run of plain text while unescaping, or null if there is no scanner that is faster than checking every char
+    @Nullable AsciiScanner unescapeScanner() {
+        return this.unescapeScanner;
+    }
+
+    // The escape prefix, the surrounder and every code point that has to be escaped end a run of plain text that can be copied as is while unescaping
+    boolean isUnescapeStop(int codePoint) {
+        if (codePoint < ASCII_SIZE) {
+            return this.asciiUnescapeStops[codePoint];
+        }
+        return this.computeIsUnescapeStop(codePoint);
+    }
+
+    public boolean shouldBeEscaped(int codePoint) {
+        if (codePoint < ASCII_SIZE) {
+            return this.asciiForced[codePoint];
+        }
+        Block block = this.block(codePoint);
+        long[] forced = block.forced();
+        return forced != null && (forced[(codePoint & BLOCK_MASK) >>> 6] & (1L << codePoint)) != 0;
+    }
+
+    private Block block(int codePoint) {
+        int index = codePoint >>> BLOCK_SHIFT;
+        Block block = this.blocks[index];
+        if (block == null) {
+            // Computing a block is idempotent, so racing threads at worst compute the same block twice
+            block = this.computeBlock(index << BLOCK_SHIFT);
+            this.blocks[index] = block;
+        }
+        return block;
+    }
+
+    private Block computeBlock(int firstCodePoint) {
+        String[] escaped = null;
+        long[] forced = null;
+        EscapedSink sink = new EscapedSink();
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            int codePoint = firstCodePoint + i;
+            String escapedValue = this.computeEscaped(codePoint, sink);
+            if (escapedValue != null) {
+                if (escaped == null) {
+                    escaped = new String[BLOCK_SIZE];
+                }
+                escaped[i] = escapedValue;
+            }
+            if (this.computeShouldBeEscaped(codePoint)) {
+                if (forced == null) {
+                    forced = new long[BLOCK_SIZE >>> 6];
+                }
+                forced[i >>> 6] |= 1L << i;
+            }
+        }
+        if (escaped == null && forced == null) {
+            return PASS_THROUGH_BLOCK;
+        }
+        return new Block(escaped, forced);
+    }
+
+    private @Nullable String computeEscaped(int codePoint, EscapedSink sink) {
+        sink.builder.setLength(0);
+        for (EscapeRule escapeRule : this.escapeRules) {
+            if (escapeRule.escapeTo(codePoint, this.surrounderCodePoint, sink)) {
+                return sink.builder.toString();
+            }
+        }
+        return null;
+    }
+
+    private boolean computeIsUnescapeStop(int codePoint) {
+        return codePoint == this.escapePrefixCodePoint || codePoint == this.surrounderCodePoint || this.shouldBeEscaped(codePoint);
+    }
+
+    private boolean computeShouldBeEscaped(int codePoint) {
+        for (EscapeRule escapeRule : this.escapeRules) {
+            if (escapeRule.shouldBeEscaped(codePoint, this.surrounderCodePoint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Block(String @Nullable [] escaped, long @Nullable [] forced) {}
+
+    // Joins every escape sequence of a code point with the escape prefix and suffix around them
+    private class EscapedSink implements EscapeRule.SequenceSink {
+        private final StringBuilder builder = new StringBuilder();
+
+        @Override
+        public void startSequence() {
+            this.builder.appendCodePoint(EscapeTable.this.escapePrefixCodePoint);
+        }
+
+        @Override
+        public void endSequence() {
+            CodePointUtil.append(this.builder, EscapeTable.this.escapeSuffixCodePoint);
+        }
+
+        @Override
+        public void append(char c) {
+            this.builder.append(c);
+        }
+
+        @Override
+        public void appendCodePoint(int codePoint) {
+            this.builder.appendCodePoint(codePoint);
+        }
+
+        @Override
+        public void append(CharSequence value, int start, int end) {
+            this.builder.append(value, start, end);
+        }
+    }
+}
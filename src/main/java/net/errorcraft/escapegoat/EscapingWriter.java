@@ -0,0 +1,133 @@
+package net.errorcraft.escapegoat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+// Escapes everything written to it and writes the result to the underlying writer, surrounding it with the surrounder of the escaper when closed
+public class EscapingWriter extends Writer {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NO_PENDING_SURROGATE = -1;
+
+    private final Writer out;
+    private final StringEscaper escaper;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+    private final char[] surrogatePair = new char[2];
+    private char[] transferBuffer = new char[BUFFER_SIZE];
+    private int pendingHighSurrogate = NO_PENDING_SURROGATE;
+    private boolean started;
+    private boolean closed;
+
+    public EscapingWriter(Writer out, StringEscaper escaper) {
+        this.out = out;
+        this.escaper = escaper;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        this.escapeAndWrite(CharBuffer.wrap(cbuf), off, off + len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        this.escapeAndWrite(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        this.escapeAndWrite(csq == null ? "null" : csq, start, end);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.ensureOpen();
+        this.flushBuffer();
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.start();
+        if (this.pendingHighSurrogate != NO_PENDING_SURROGATE) {
+            this.surrogatePair[0] = (char) this.pendingHighSurrogate;
+            this.pendingHighSurrogate = NO_PENDING_SURROGATE;
+            this.escaper.escapeContentTo(CharBuffer.wrap(this.surrogatePair), 0, 1, this.buffer);
+        }
+        Integer surrounderCodePoint = this.escaper.surrounderCodePoint();
+        if (surrounderCodePoint != null) {
+            this.buffer.appendCodePoint(surrounderCodePoint);
+        }
+        this.flushBuffer();
+        this.closed = true;
+        this.out.close();
+    }
+
+    private void escapeAndWrite(CharSequence value, int start, int end) throws IOException {
+        this.ensureOpen();
+        this.start();
+        if (start >= end) {
+            return;
+        }
+        if (this.pendingHighSurrogate != NO_PENDING_SURROGATE) {
+            this.surrogatePair[0] = (char) this.pendingHighSurrogate;
+            this.surrogatePair[1] = value.charAt(start);
+            this.pendingHighSurrogate = NO_PENDING_SURROGATE;
+            if (Character.isLowSurrogate(this.surrogatePair[1])) {
+                this.escaper.escapeContentTo(CharBuffer.wrap(this.surrogatePair), 0, 2, this.buffer);
+                start++;
+            } else {
+                this.escaper.escapeContentTo(CharBuffer.wrap(this.surrogatePair), 0, 1, this.buffer);
+            }
+        }
+        if (start < end && Character.isHighSurrogate(value.charAt(end - 1))) {
+            // Wait for the low surrogate in the next write
+            this.pendingHighSurrogate = value.charAt(end - 1);
+            end--;
+        }
+        while (start < end) {
+            int partEnd = Math.min(end, start + BUFFER_SIZE);
+            if (partEnd < end && Character.isHighSurrogate(value.charAt(partEnd - 1))) {
+                partEnd++;
+            }
+            this.escaper.escapeContentTo(value, start, partEnd, this.buffer);
+            start = partEnd;
+            if (this.buffer.length() >= BUFFER_SIZE) {
+                this.flushBuffer();
+            }
+        }
+    }
+
+    private void start() {
+        if (this.started) {
+            return;
+        }
+        this.started = true;
+        Integer surrounderCodePoint = this.escaper.surrounderCodePoint();
+        if (surrounderCodePoint != null) {
+            this.buffer.appendCodePoint(surrounderCodePoint);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        int length = this.buffer.length();
+        if (length == 0) {
+            return;
+        }
+        if (this.transferBuffer.length < length) {
+            this.transferBuffer = new char[length];
+        }
+        this.buffer.getChars(0, length, this.transferBuffer, 0);
+        this.out.write(this.transferBuffer, 0, length);
+        this.buffer.setLength(0);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Writer is closed");
+        }
+    }
+}
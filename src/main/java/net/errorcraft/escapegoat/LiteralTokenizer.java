@@ -0,0 +1,196 @@
+package net.errorcraft.escapegoat;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds every string literal in a text, such as the SNBT strings in a command, and keeps them unescaped between edits of the text.
+// An update only unescapes the literals from the edit up to where the text is outside a literal at the same place as before, the literals after that are moved instead.
+// Updates must all come from the same thread, the literals can be read from any thread.
+public class LiteralTokenizer {
+    // Errors describe the chars after where they were found, which can be past the end of the literal
+    private static final int ERROR_CONTEXT_LENGTH = 16;
+    // Only set by the client while it parses its command input, so it is never set on dedicated servers
+    private static volatile @Nullable LiteralTokenizer parsing;
+
+    private final StringEscaper escaper;
+    private final EscapeSession session;
+    private final UnescapeContext context = new UnescapeContext(false, (readCodePoints, readChars) -> this.readChars = readChars);
+    private final StringEscaper.SequenceListener sequenceListener = this::addSequence;
+    private volatile Literals literals = new Literals("", new StringLiteral[0]);
+    private int[] sequences = new int[16];
+    private int sequenceCount;
+    private int readChars;
+    private int unescapedLiterals;
+
+    public LiteralTokenizer(StringEscaper escaper) {
+        this.escaper = escaper;
+        this.session = escaper.session();
+    }
+
+    // Whether input is parsed as a command, like the chat input suggestor decides it.
+    // Command blocks and their minecarts parse their input without a leading slash, chat only does so for text starting with one.
+    public static boolean isCommand(String text, boolean slashOptional) {
+        return slashOptional || text.startsWith("/");
+    }
+
+    // The tokenizer of the text that is being parsed, or null if nothing is being parsed with one
+    public static @Nullable LiteralTokenizer parsing() {
+        return parsing;
+    }
+
+    // Lets readers find the literals of the current text until parsing is finished
+    public void startParsing() {
+        parsing = this;
+    }
+
+    public void finishParsing() {
+        if (parsing == this) {
+            parsing = null;
+        }
+    }
+
+    public String text() {
+        return this.literals.text;
+    }
+
+    public List<StringLiteral> literals() {
+        return List.of(this.literals.literals);
+    }
+
+    // The literal starting at the index, or null if there is none or the literals are of a different text.
+    // The text is compared by identity, as comparing the contents would cost about as much as finding the literal again.
+    public @Nullable StringLiteral literalAt(String text, int start) {
+        Literals literals = this.literals;
+        if (literals.text != text) {
+            return null;
+        }
+        int low = 0;
+        int high = literals.literals.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleStart = literals.literals[middle].start();
+            if (middleStart < start) {
+                low = middle + 1;
+            } else if (middleStart > start) {
+                high = middle - 1;
+            } else {
+                return literals.literals[middle];
+            }
+        }
+        return null;
+    }
+
+    // The amount of literals that were unescaped by the last update, rather than kept or moved
+    public int unescapedLiterals() {
+        return this.unescapedLiterals;
+    }
+
+    public void update(String text) {
+        Literals previous = this.literals;
+        String previousText = previous.text;
+        this.unescapedLiterals = 0;
+        if (previousText.equals(text)) {
+            if (previousText != text) {
+                this.literals = new Literals(text, previous.literals);
+            }
+            return;
+        }
+        int previousLength = previousText.length();
+        int length = text.length();
+        int maxLength = Math.min(previousLength, length);
+        int editStart = 0;
+        while (editStart < maxLength && previousText.charAt(editStart) == text.charAt(editStart)) {
+            editStart++;
+        }
+        int unchangedEnd = 0;
+        while (unchangedEnd < maxLength - editStart && previousText.charAt(previousLength - 1 - unchangedEnd) == text.charAt(length - 1 - unchangedEnd)) {
+            unchangedEnd++;
+        }
+        int editEnd = length - unchangedEnd;
+        int offset = length - previousLength;
+
+        StringLiteral[] previousLiterals = previous.literals;
+        List<StringLiteral> literals = new ArrayList<>(previousLiterals.length + 1);
+        int kept = 0;
+        while (kept < previousLiterals.length && this.isBeforeEdit(previousLiterals[kept], editStart, previousLength)) {
+            literals.add(previousLiterals[kept]);
+            kept++;
+        }
+        int index = kept == 0 ? 0 : previousLiterals[kept - 1].end();
+        int reusable = kept;
+        while (index < length) {
+            if (index >= editEnd) {
+                // Past the edit the text is the same as before, so once both are outside a literal at the same place the rest is the same too
+                int previousIndex = index - offset;
+                while (reusable < previousLiterals.length && previousLiterals[reusable].start() < previousIndex) {
+                    reusable++;
+                }
+                if (reusable == 0 || previousLiterals[reusable - 1].end() <= previousIndex) {
+                    for (int i = reusable; i < previousLiterals.length; i++) {
+                        literals.add(previousLiterals[i].move(offset));
+                    }
+                    break;
+                }
+            }
+            int codePoint = text.codePointAt(index);
+            if (!this.escaper.isSurrounder(codePoint)) {
+                index += Character.charCount(codePoint);
+                continue;
+            }
+            StringLiteral literal = this.unescape(text, index);
+            literals.add(literal);
+            this.unescapedLiterals++;
+            index = literal.end();
+        }
+        this.literals = new Literals(text, literals.toArray(new StringLiteral[0]));
+    }
+
+    // Literals that were cut off by the end of the text could continue in the edit
+    private boolean isBeforeEdit(StringLiteral literal, int editStart, int previousLength) {
+        if (literal.end() >= previousLength) {
+            return false;
+        }
+        if (literal.isValid()) {
+            return literal.end() <= editStart;
+        }
+        return literal.end() + ERROR_CONTEXT_LENGTH <= editStart;
+    }
+
+    private StringLiteral unescape(String text, int start) {
+        this.sequenceCount = 0;
+        UnescapeResult result = this.escaper.tryUnescape(text, start, text.length(), this.context, this.session, this.sequenceListener);
+        int end = result.isSuccess() ? start + this.readChars : this.skipInvalid(text, start);
+        return new StringLiteral(start, end, result.value(), result.error(), Arrays.copyOf(this.sequences, this.sequenceCount * 2));
+    }
+
+    private int skipInvalid(String text, int start) {
+        int surrounderCodePoint = text.codePointAt(start);
+        int escapePrefixCodePoint = this.escaper.escapePrefixCodePoint();
+        int index = start + Character.charCount(surrounderCodePoint);
+        while (index < text.length()) {
+            int codePoint = text.codePointAt(index);
+            index += Character.charCount(codePoint);
+            if (codePoint == surrounderCodePoint) {
+                return index;
+            }
+            if (codePoint == escapePrefixCodePoint && index < text.length()) {
+                index += Character.charCount(text.codePointAt(index));
+            }
+        }
+        return text.length();
+    }
+
+    private void addSequence(int start, int end) {
+        if (this.sequenceCount * 2 == this.sequences.length) {
+            this.sequences = Arrays.copyOf(this.sequences, this.sequences.length * 2);
+        }
+        this.sequences[this.sequenceCount * 2] = start;
+        this.sequences[this.sequenceCount * 2 + 1] = end;
+        this.sequenceCount++;
+    }
+
+    private record Literals(String text, StringLiteral[] literals) {}
+}
@@ -5,15 +5,19 @@ import net.errorcraft.escapegoat.rule.CharacterEscapeRule;
 import net.errorcraft.escapegoat.rule.EscapeRule;
 import net.errorcraft.escapegoat.rule.PreferSurrounderCharacterEscapeRule;
 import net.errorcraft.escapegoat.rule.UnicodeEscapeRule;
+import net.errorcraft.escapegoat.scan.AsciiScanner;
+import net.errorcraft.escapegoat.scan.AsciiScanners;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 public class StringEscaper {
     // Escaper to prevent people from breaking error messages if they decide to use control characters for surrounders or escape sequences for some reason
-    private static final StringEscaper EXCEPTION_STRING_ESCAPER = StringEscaper.builder('\\', "\\")
+    static final StringEscaper EXCEPTION_STRING_ESCAPER = StringEscaper.builder('\\', "\\")
         .rule(CharacterEscapeRule.ofAlwaysEscape('\b', "b"))
         .rule(CharacterEscapeRule.ofAlwaysEscape('\f', "f"))
         .rule(CharacterEscapeRule.ofAlwaysEscape('\n', "n"))
@@ -27,16 +31,54 @@ public class StringEscaper {
             .build())
         .build();
 
+    // Batches with at most this many values are handled on the calling thread
+    public static final int DEFAULT_BATCH_THRESHOLD = 1024;
+    // Larger capacities can fail even if there is enough memory
+    private static final int MAX_BUILDER_CAPACITY = Integer.MAX_VALUE - 8;
+    // Shorter values are not worth copying into an array for the scanner
+    private static final int MIN_SCAN_LENGTH = 64;
+
     private final int[] surrounderCodePoints;
     private final int escapePrefixCodePoint;
     private final Integer escapeSuffixCodePoint;
-    private final EscapeRule[] escapeRules;
+    // Index 0 is used when there is no surrounder, the others match the surrounder at the previous index
+    private final EscapeTable[] escapeTables;
+    private final EscapeRuleTrie[] escapeRuleTries;
+    private final boolean chooseCheapestSurrounder;
+    // Shows up in flight recordings to tell apart which escaper was used
+    private final @Nullable String name;
+    // Stops at every ASCII char that any surrounder escapes, for counting the escaped lengths of every surrounder at once
+    private final @Nullable AsciiScanner surrounderScanner;
 
-    private StringEscaper(int[] surrounderCodePoints, int escapePrefixCodePoint, Integer escapeSuffixCodePoint, EscapeRule[] escapeRules) {
+    private StringEscaper(@Nullable String name, int[] surrounderCodePoints, int escapePrefixCodePoint, Integer escapeSuffixCodePoint, EscapeRule[] escapeRules, boolean cheapestSurrounder) {
+        this.name = name;
         this.surrounderCodePoints = surrounderCodePoints;
+        this.chooseCheapestSurrounder = cheapestSurrounder && surrounderCodePoints.length > 1;
         this.escapePrefixCodePoint = escapePrefixCodePoint;
         this.escapeSuffixCodePoint = escapeSuffixCodePoint;
-        this.escapeRules = escapeRules;
+        this.escapeTables = new EscapeTable[surrounderCodePoints.length + 1];
+        this.escapeRuleTries = new EscapeRuleTrie[surrounderCodePoints.length + 1];
+        this.escapeTables[0] = new EscapeTable(escapePrefixCodePoint, escapeSuffixCodePoint, escapeRules, null);
+        this.escapeRuleTries[0] = new EscapeRuleTrie(escapeRules, null);
+        for (int i = 0; i < surrounderCodePoints.length; i++) {
+            this.escapeTables[i + 1] = new EscapeTable(escapePrefixCodePoint, escapeSuffixCodePoint, escapeRules, surrounderCodePoints[i]);
+            this.escapeRuleTries[i + 1] = new EscapeRuleTrie(escapeRules, surrounderCodePoints[i]);
+        }
+        this.surrounderScanner = this.chooseCheapestSurrounder ? this.createSurrounderScanner() : null;
+    }
+
+    private @Nullable AsciiScanner createSurrounderScanner() {
+        boolean[] stops = new boolean[AsciiScanners.ASCII_SIZE];
+        for (int codePoint = 0; codePoint < AsciiScanners.ASCII_SIZE; codePoint++) {
+            for (int i = 1; i < this.escapeTables.length; i++) {
+                stops[codePoint] |= this.escapeTables[i].escaped(codePoint) != null;
+            }
+        }
+        return AsciiScanners.of(stops);
+    }
+
+    public @Nullable String name() {
+        return this.name;
     }
 
     public static Builder builder(int escapePrefixCodePoint, String escapedPrefix) {
@@ -44,18 +86,211 @@ public class StringEscaper {
     }
 
     public String escape(String value) {
+        return this.escape(value, null);
+    }
+
+    // Escapes every value in parallel if there are more values than the default threshold, returning the escaped values in the same order
+    public List<String> escapeAll(List<String> values) {
+        return this.escapeAll(values, DEFAULT_BATCH_THRESHOLD);
+    }
+
+    public List<String> escapeAll(List<String> values, int threshold) {
+        return BatchTask.map(values, () -> {
+            EscapeSession session = this.session();
+            return session::escape;
+        }, threshold);
+    }
+
+    // Creates a session that reuses its buffers between calls, for threads that escape or unescape a lot of values
+    public EscapeSession session() {
+        return new EscapeSession(this);
+    }
+
+    // Like escape, but takes its buffers from the session if there is one
+    String escape(String value, @Nullable EscapeSession session) {
+        EscapeEvent event = new EscapeEvent();
+        event.begin();
+        String escaped = this.escapeWithoutEvent(value, session);
+        event.end();
+        if (event.shouldCommit()) {
+            this.commit(event, value, escaped.length());
+        }
+        return escaped;
+    }
+
+    private String escapeWithoutEvent(String value, @Nullable EscapeSession session) {
+        if (this.chooseCheapestSurrounder) {
+            return this.escapeWithCheapestSurrounder(value, session);
+        }
         Integer surrounderCodePoint = this.surrounderCodePoint();
-        StringBuilder builder = new StringBuilder();
-        CodePointUtil.append(builder, surrounderCodePoint);
-        for (int codePoint : value.codePoints().toArray()) {
-            builder.append(this.escapeIfNecessary(codePoint, surrounderCodePoint));
+        EscapeTable escapeTable = this.escapeTables[this.surrounderIndex(surrounderCodePoint)];
+        int length = value.length();
+        char[] chars = scanChars(value, escapeTable.scanner(), session);
+        int index = nextEscapeIndex(value, chars, 0, length, escapeTable);
+        if (index == length && surrounderCodePoint == null) {
+            return value;
+        }
+        StringBuilder builder = builder(session, length + 2);
+        try {
+            this.escapeTo(value, chars, index, surrounderCodePoint, escapeTable, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    private String escapeWithCheapestSurrounder(String value, @Nullable EscapeSession session) {
+        int surrounderCount = this.surrounderCodePoints.length;
+        long[] escapedLengths = session == null ? new long[surrounderCount] : session.escapedLengths(surrounderCount);
+        char[] chars = scanChars(value, this.surrounderScanner, session);
+        int surrounderIndex = this.cheapestSurrounderIndex(value, chars, escapedLengths);
+        EscapeTable escapeTable = this.escapeTables[surrounderIndex];
+        StringBuilder builder = builder(session, (int) Math.min(escapedLengths[surrounderIndex - 1], MAX_BUILDER_CAPACITY));
+        try {
+            this.escapeTo(value, chars, nextEscapeIndex(value, chars, 0, value.length(), escapeTable), this.surrounderCodePoints[surrounderIndex - 1], escapeTable, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        CodePointUtil.append(builder, surrounderCodePoint);
         return builder.toString();
     }
 
+    private static StringBuilder builder(@Nullable EscapeSession session, int capacity) {
+        if (session == null) {
+            return new StringBuilder(capacity);
+        }
+        return session.builder(capacity);
+    }
+
+    // Counts the length of the escaped value for every surrounder in a single pass, returning the index of the escape table with the shortest one.
+    // The first surrounder wins if multiple surrounders are just as short.
+    private int cheapestSurrounderIndex(CharSequence value, char @Nullable [] chars, long[] escapedLengths) {
+        int surrounderCount = this.surrounderCodePoints.length;
+        for (int i = 0; i < surrounderCount; i++) {
+            escapedLengths[i] = 2L * Character.charCount(this.surrounderCodePoints[i]);
+        }
+        int length = value.length();
+        int index = 0;
+        AsciiScanner scanner = chars == null ? null : this.surrounderScanner;
+        while (index < length) {
+            if (scanner != null && chars[index] < AsciiScanners.ASCII_SIZE) {
+                // None of the surrounders escape the skipped chars, so they are as long for every surrounder
+                int next = scanner.scan(chars, index, length);
+                for (int i = 0; i < surrounderCount; i++) {
+                    escapedLengths[i] += next - index;
+                }
+                index = next;
+                if (index == length) {
+                    break;
+                }
+            }
+            int codePoint = CodePointUtil.codePointAt(value, index, length);
+            int charCount = Character.charCount(codePoint);
+            for (int i = 0; i < surrounderCount; i++) {
+                String escaped = this.escapeTables[i + 1].escaped(codePoint);
+                escapedLengths[i] += escaped == null ? charCount : escaped.length();
+            }
+            index += charCount;
+        }
+        int cheapest = 0;
+        for (int i = 1; i < surrounderCount; i++) {
+            if (escapedLengths[i] < escapedLengths[cheapest]) {
+                cheapest = i;
+            }
+        }
+        return cheapest + 1;
+    }
+
+    public int escapeTo(CharSequence value, StringBuilder output) {
+        try {
+            return this.escapeTo(value, (Appendable) output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Returns the amount of chars appended to the output
+    public int escapeTo(CharSequence value, Appendable output) throws IOException {
+        EscapeEvent event = new EscapeEvent();
+        event.begin();
+        int written = this.escapeToWithoutEvent(value, output);
+        event.end();
+        if (event.shouldCommit()) {
+            this.commit(event, value, written);
+        }
+        return written;
+    }
+
+    private int escapeToWithoutEvent(CharSequence value, Appendable output) throws IOException {
+        if (this.chooseCheapestSurrounder) {
+            long[] escapedLengths = new long[this.surrounderCodePoints.length];
+            char[] chars = scanChars(value, this.surrounderScanner, null);
+            int surrounderIndex = this.cheapestSurrounderIndex(value, chars, escapedLengths);
+            EscapeTable escapeTable = this.escapeTables[surrounderIndex];
+            if (output instanceof StringBuilder builder) {
+                builder.ensureCapacity((int) Math.min(builder.length() + escapedLengths[surrounderIndex - 1], MAX_BUILDER_CAPACITY));
+            }
+            return this.escapeTo(value, chars, nextEscapeIndex(value, chars, 0, value.length(), escapeTable), this.surrounderCodePoints[surrounderIndex - 1], escapeTable, output);
+        }
+        Integer surrounderCodePoint = this.surrounderCodePoint();
+        EscapeTable escapeTable = this.escapeTables[this.surrounderIndex(surrounderCodePoint)];
+        char[] chars = scanChars(value, escapeTable.scanner(), null);
+        return this.escapeTo(value, chars, nextEscapeIndex(value, chars, 0, value.length(), escapeTable), surrounderCodePoint, escapeTable, output);
+    }
+
+    // Only called for events that are recorded, so going over the value again to count the escaped code points does not slow down anything else
+    private void commit(EscapeEvent event, CharSequence value, int outputLength) {
+        EscapeTable escapeTable = this.escapeTable();
+        if (this.chooseCheapestSurrounder) {
+            escapeTable = this.escapeTables[this.cheapestSurrounderIndex(value, null, new long[this.surrounderCodePoints.length])];
+        }
+        int escapedCodePoints = 0;
+        int length = value.length();
+        for (int index = 0; index < length; ) {
+            int codePoint = CodePointUtil.codePointAt(value, index, length);
+            if (escapeTable.escaped(codePoint) != null) {
+                escapedCodePoints++;
+            }
+            index += Character.charCount(codePoint);
+        }
+        event.escaper = this.name;
+        event.inputLength = length;
+        event.outputLength = outputLength;
+        event.escapedCodePoints = escapedCodePoints;
+        event.commit();
+    }
+
+    // Escapes the region without surrounders, using the rules for the surrounder that escape would use
+    int escapeContentTo(CharSequence value, int start, int end, Appendable output) throws IOException {
+        EscapeTable escapeTable = this.escapeTables[this.surrounderIndex(this.surrounderCodePoint())];
+        return this.escapeContentTo(value, null, start, nextEscapeIndex(value, null, start, end, escapeTable), end, escapeTable, output);
+    }
+
+    // The table escape uses for the content between the surrounders
+    EscapeTable escapeTable() {
+        return this.escapeTables[this.surrounderIndex(this.surrounderCodePoint())];
+    }
+
+    int escapePrefixCodePoint() {
+        return this.escapePrefixCodePoint;
+    }
+
+    boolean isSurrounder(int codePoint) {
+        return this.surrounderCodePoint(codePoint) != null;
+    }
+
+    @Nullable Integer surrounderCodePoint() {
+        if (this.surrounderCodePoints.length == 0) {
+            return null;
+        }
+        return this.surrounderCodePoints[0];
+    }
+
     public String escapeCodePoint(int codePoint) {
-        return this.escapeIfNecessary(codePoint, null);
+        String escaped = this.escapeTables[0].escaped(codePoint);
+        if (escaped == null) {
+            return Character.toString(codePoint);
+        }
+        return escaped;
     }
 
     public String unescape(String value) throws UnescapeStringException {
@@ -63,142 +298,595 @@ public class StringEscaper {
     }
 
     public String unescape(String value, UnescapeContext context) throws UnescapeStringException {
-        StringBuilder builder = new StringBuilder();
-        EscapeState state = EscapeState.START_STRING;
-        int[] codePoints = value.codePoints().toArray();
-        Integer surrounder = null;
-        int i = 0;
-        for (; i < codePoints.length; i++) {
-            int codePoint = codePoints[i];
-            switch (state) {
+        return this.unescape(value, 0, value.length(), context);
+    }
+
+    public String unescape(CharSequence value, int start, int end, UnescapeContext context) throws UnescapeStringException {
+        return this.tryUnescape(value, start, end, context).getOrThrow();
+    }
+
+    public UnescapeResult tryUnescape(String value) {
+        return this.tryUnescape(value, UnescapeContext.DEFAULT);
+    }
+
+    public UnescapeResult tryUnescape(String value, UnescapeContext context) {
+        return this.tryUnescape(value, 0, value.length(), context);
+    }
+
+    // Like unescape, but returns the error instead of throwing it
+    public UnescapeResult tryUnescape(CharSequence value, int start, int end, UnescapeContext context) {
+        return this.tryUnescape(value, start, end, context, null);
+    }
+
+    // Unescapes every value in parallel if there are more values than the default threshold, returning a result for every value in the same order.
+    // The callback of the context must be thread-safe, as it can be called from multiple threads at once.
+    public List<UnescapeResult> unescapeAll(List<String> values, UnescapeContext context) {
+        return this.unescapeAll(values, context, DEFAULT_BATCH_THRESHOLD);
+    }
+
+    public List<UnescapeResult> unescapeAll(List<String> values, UnescapeContext context, int threshold) {
+        return BatchTask.map(values, () -> {
+            EscapeSession session = this.session();
+            return value -> session.tryUnescape(value, context);
+        }, threshold);
+    }
+
+    public int validate(CharSequence value, UnescapeContext context) throws UnescapeStringException {
+        return this.validate(value, 0, value.length(), context);
+    }
+
+    // Checks the value like unescape without building the unescaped string, returning the amount of chars read from the value
+    public int validate(CharSequence value, int start, int end, UnescapeContext context) throws UnescapeStringException {
+        return this.unescapeTo(value, start, end, CodePointSink.DISCARD, context);
+    }
+
+    // Like validate, but returns the error instead of throwing it, or null if the value is valid
+    public @Nullable UnescapeError tryValidate(CharSequence value, int start, int end, UnescapeContext context) {
+        return this.tryValidate(value, start, end, context, null);
+    }
+
+    @Nullable UnescapeError tryValidate(CharSequence value, int start, int end, UnescapeContext context, @Nullable EscapeSession session) {
+        UnescapeState state = session == null ? new UnescapeState(false) : session.state();
+        this.unescapeTo(state, value, start, end, CodePointSink.DISCARD, context);
+        return state.error;
+    }
+
+    UnescapeResult tryUnescape(CharSequence value, int start, int end, UnescapeContext context, @Nullable EscapeSession session) {
+        return this.tryUnescape(value, start, end, context, session, null);
+    }
+
+    // Like tryUnescape, but also tells the listener where every escape sequence is
+    UnescapeResult tryUnescape(CharSequence value, int start, int end, UnescapeContext context, @Nullable EscapeSession session, @Nullable SequenceListener sequences) {
+        UnescapeState state = session == null ? new UnescapeState(false) : session.state();
+        state.sequences = sequences;
+        SubstringSink output = new SubstringSink(value, session, end - start);
+        this.unescapeTo(state, value, start, end, output, context);
+        if (state.error != null) {
+            return UnescapeResult.failure(state.error);
+        }
+        return UnescapeResult.success(output.toString());
+    }
+
+    public int unescapeTo(CharSequence value, StringBuilder output, UnescapeContext context) throws UnescapeStringException {
+        return this.unescapeTo(value, 0, value.length(), output, context);
+    }
+
+    public int unescapeTo(CharSequence value, int start, int end, StringBuilder output, UnescapeContext context) throws UnescapeStringException {
+        return this.unescapeTo(value, start, end, CodePointSink.of(output), context);
+    }
+
+    // Returns the amount of chars read from the value, the output is left partially written if an exception is thrown
+    public int unescapeTo(CharSequence value, int start, int end, CodePointSink output, UnescapeContext context) throws UnescapeStringException {
+        UnescapeState state = new UnescapeState(false);
+        int index = this.unescapeTo(state, value, start, end, output, context);
+        if (state.error != null) {
+            throw state.error.toException();
+        }
+        return index - start;
+    }
+
+    private int unescapeTo(UnescapeState state, CharSequence value, int start, int end, CodePointSink output, UnescapeContext context) {
+        UnescapeEvent event = new UnescapeEvent();
+        event.begin();
+        int outputStart = outputLength(output);
+        int index = this.unescapeTo(state, value, start, end, true, output);
+        this.checkTrailing(state, value, index, end, context);
+        this.finishUnescape(state, context);
+        event.end();
+        if (state.error != null) {
+            this.commitFailed(state);
+        } else if (event.shouldCommit()) {
+            event.escaper = this.name;
+            event.inputLength = index - start;
+            event.outputLength = outputStart == -1 ? -1 : outputLength(output) - outputStart;
+            event.escapeSequences = state.escapeSequences;
+            event.commit();
+        }
+        return index;
+    }
+
+    // Unescapes as much of the region as possible, keeping track of where it left off in the state.
+    // If this is not the end of the input, it stops before anything that could continue in the next part of the input.
+    // Returns the index it stopped at, which is before the end of the region if the string was closed, more input is needed or an error was found.
+    // Errors are stored in the state rather than thrown.
+    int unescapeTo(UnescapeState state, CharSequence value, int start, int end, boolean endOfInput, CodePointSink output) {
+        // Only taken from the state once there is an escape sequence
+        CodePointReader reader = null;
+        // Runs of plain text stop before a high surrogate at the end, as it could be part of a pair with the next part of the input
+        int runEnd = !endOfInput && end > start && Character.isHighSurrogate(value.charAt(end - 1)) ? end - 1 : end;
+        char[] chars = null;
+        boolean scanned = false;
+        int i = start;
+        loop:
+        while (i < end && state.state != EscapeState.END_STRING && state.error == null) {
+            if (!endOfInput && i + 1 == end && Character.isHighSurrogate(value.charAt(i))) {
+                break;
+            }
+            if (state.state == EscapeState.NONE) {
+                EscapeTable escapeTable = this.escapeTables[state.surrounderIndex];
+                if (!scanned) {
+                    chars = scanChars(value, i, runEnd, escapeTable.unescapeScanner(), state);
+                    scanned = true;
+                }
+                int stop = nextUnescapeStop(value, chars, i, runEnd, escapeTable);
+                if (stop > i) {
+                    output.append(value, i, stop);
+                    i = stop;
+                    continue;
+                }
+            }
+            int codePoint = CodePointUtil.codePointAt(value, i, end);
+            int next = i + Character.charCount(codePoint);
+            switch (state.state) {
                 case START_STRING -> {
-                    surrounder = this.surrounderCodePoint(codePoint);
-                    state = EscapeState.NONE;
-                    if (surrounder != null) {
+                    state.surrounder = this.surrounderCodePoint(codePoint);
+                    if (state.surrounder == null && this.surrounderCodePoints.length > 0) {
+                        state.error = UnescapeError.missingSurrounder(state.position(start, i));
+                        break loop;
+                    }
+                    state.surrounderIndex = this.surrounderIndex(state.surrounder);
+                    state.state = EscapeState.NONE;
+                    if (state.surrounder != null) {
+                        i = next;
                         continue;
                     }
                 }
                 case START_ESCAPE -> {
-                    CodePointReader reader = new CodePointReader(value, i);
-                    builder.append(this.unescape(reader, surrounder, codePoint, i));
-                    i = reader.index() - 1;
-                    state = this.escapeSuffixCodePoint == null ? EscapeState.NONE : EscapeState.END_ESCAPE;
+                    if (reader == null) {
+                        reader = state.reader(value, start, end);
+                    }
+                    reader.index(i);
+                    if (!this.unescapeTo(state, reader, start, endOfInput, output)) {
+                        break loop;
+                    }
+                    i = reader.index();
+                    state.escapeSequences++;
+                    if (this.escapeSuffixCodePoint == null) {
+                        state.endSequence(state.position(start, i));
+                        state.state = EscapeState.NONE;
+                    } else {
+                        state.state = EscapeState.END_ESCAPE;
+                    }
                     continue;
                 }
                 case END_ESCAPE -> {
                     if (codePoint == this.escapeSuffixCodePoint) {
-                        state = EscapeState.NONE;
+                        state.endSequence(state.position(start, next));
+                        state.state = EscapeState.NONE;
+                        i = next;
                         continue;
                     }
-                    throw new UnescapeStringException("Expected " + EXCEPTION_STRING_ESCAPER.escapeCodePoint(this.escapeSuffixCodePoint) + " with code point " + codePoint + " to end an escape sequence at position " + i + ": " + CodePointUtil.toStringEllipsis(codePoints, i));
+                    state.error = UnescapeError.missingEscapeSuffix(state.position(start, i), this.escapeSuffixCodePoint, value, i, end);
+                    break loop;
                 }
             }
             if (codePoint == this.escapePrefixCodePoint) {
-                state = EscapeState.START_ESCAPE;
+                state.sequenceStart = state.position(start, i);
+                state.state = EscapeState.START_ESCAPE;
+                i = next;
                 continue;
             }
-            if (surrounder != null && codePoint == surrounder) {
-                state = EscapeState.END_STRING;
+            if (state.surrounder != null && codePoint == state.surrounder) {
+                state.state = EscapeState.END_STRING;
+                i = next;
                 break;
             }
-            if (this.shouldBeEscaped(codePoint, surrounder)) {
-                throw new UnescapeStringException("Character " + EXCEPTION_STRING_ESCAPER.escapeCodePoint(codePoint) + " with code point " + codePoint + " should be escaped at position " + i + ": " + CodePointUtil.toStringEllipsis(codePoints, i));
+            // Only code points that stop a run of plain text get here while in a string, so this is checked last
+            if (this.escapeTables[state.surrounderIndex].shouldBeEscaped(codePoint)) {
+                state.error = UnescapeError.unescapedCharacter(state.position(start, i), codePoint, value, i, end);
+                break;
             }
-            builder.appendCodePoint(codePoint);
+            output.appendCodePoint(codePoint);
+            i = next;
+        }
+        if (state.state == EscapeState.START_ESCAPE && !endOfInput && state.error == null) {
+            // Starts over at the prefix with the next part of the input, so the escape sequence and any error in it include the prefix
+            i = start + state.sequenceStart - state.readChars;
+            state.state = EscapeState.NONE;
+        }
+        state.advance(value, start, i);
+        return i;
+    }
+
+    // Records the error of the state if failed unescapes are being recorded
+    void commitFailed(UnescapeState state) {
+        UnescapeFailedEvent event = new UnescapeFailedEvent();
+        if (event.shouldCommit()) {
+            event.escaper = this.name;
+            event.inputLength = state.readChars;
+            event.position = state.error.position();
+            event.kind = state.error.kind().name();
+            event.message = state.error.message();
+            event.commit();
         }
-        if (context.throwOnTrailingCodePoints() && (i + 1) < codePoints.length) {
-            throw new UnescapeStringException("Trailing characters found in string at code point " + (i + 1) + ": " + CodePointUtil.toStringEllipsis(codePoints, i + 1));
+    }
+
+    void checkTrailing(UnescapeState state, CharSequence value, int index, int end, UnescapeContext context) {
+        if (state.error == null && context.throwOnTrailingCodePoints() && index < end) {
+            state.error = UnescapeError.trailingCharacters(state.readChars, value, index, end);
         }
-        return switch (state) {
+    }
+
+    // Checks that the string was closed properly and calls the callback with either the amount of read code points and chars or the error
+    void finishUnescape(UnescapeState state, UnescapeContext context) {
+        if (state.error != null) {
+            context.callback().failed(state.error);
+            return;
+        }
+        switch (state.state) {
             case START_STRING -> {
                 if (this.surrounderCodePoints.length > 0) {
-                    throw new UnescapeStringException("Expected surrounder to start a string");
+                    state.error = UnescapeError.missingSurrounder(state.readChars);
                 }
-                context.callback().apply(0, 0);
-                yield "";
-            }
-            case END_STRING -> {
-                int readChars = CodePointUtil.charCount(codePoints, i + 1);
-                context.callback().apply(i, readChars);
-                yield builder.toString();
             }
             case NONE -> {
-                if (surrounder != null) {
-                    throw new UnescapeStringException("Unclosed string, expected " + EXCEPTION_STRING_ESCAPER.escapeCodePoint(surrounder) + " to close the string");
+                if (state.surrounder != null) {
+                    state.error = UnescapeError.unclosedString(state.readChars, state.surrounder);
                 }
-                int readChars = CodePointUtil.charCount(codePoints, i + 1);
-                context.callback().apply(i, readChars);
-                yield builder.toString();
             }
-            case START_ESCAPE -> throw new UnescapeStringException("Ended string with an incomplete escape sequence");
-            case END_ESCAPE -> throw new UnescapeStringException("Expected " + EXCEPTION_STRING_ESCAPER.escapeCodePoint(this.escapeSuffixCodePoint) + " to end an escape sequence at end of string");
-        };
+            case START_ESCAPE -> state.error = UnescapeError.incompleteEscapeSequence(state.readChars);
+            case END_ESCAPE -> state.error = UnescapeError.missingEscapeSuffixAtEnd(state.readChars, this.escapeSuffixCodePoint);
+        }
+        if (state.error == null) {
+            context.callback().apply(state.readCodePoints, state.readChars);
+        } else {
+            context.callback().failed(state.error);
+        }
     }
 
-    private Integer surrounderCodePoint() {
-        if (this.surrounderCodePoints.length == 0) {
+    private int escapeTo(CharSequence value, char @Nullable [] chars, int index, Integer surrounderCodePoint, EscapeTable escapeTable, Appendable output) throws IOException {
+        int written = 0;
+        if (surrounderCodePoint != null) {
+            written += CodePointUtil.append(output, surrounderCodePoint);
+        }
+        written += this.escapeContentTo(value, chars, 0, index, value.length(), escapeTable, output);
+        if (surrounderCodePoint != null) {
+            written += CodePointUtil.append(output, surrounderCodePoint);
+        }
+        return written;
+    }
+
+    private int escapeContentTo(CharSequence value, char @Nullable [] chars, int start, int index, int end, EscapeTable escapeTable, Appendable output) throws IOException {
+        int written = 0;
+        int runStart = start;
+        while (index < end) {
+            int codePoint = CodePointUtil.codePointAt(value, index, end);
+            String escaped = escapeTable.escaped(codePoint);
+            output.append(value, runStart, index);
+            output.append(escaped);
+            written += index - runStart + escaped.length();
+            runStart = index + Character.charCount(codePoint);
+            index = nextEscapeIndex(value, chars, runStart, end, escapeTable);
+        }
+        output.append(value, runStart, end);
+        written += end - runStart;
+        return written;
+    }
+
+    // Copies the value into the chars of the session if there is a scanner and the value is long enough for it to be worth it, the chars are at the same indices as in the value.
+    // Without a session the value is checked directly, as copying it into a new array every time costs more than the scanner saves.
+    private static char @Nullable [] scanChars(CharSequence value, @Nullable AsciiScanner scanner, @Nullable EscapeSession session) {
+        int length = value.length();
+        if (length < MIN_SCAN_LENGTH || scanner == null || session == null) {
             return null;
         }
-        return this.surrounderCodePoints[0];
+        char[] chars = session.chars(length);
+        if (value instanceof String string) {
+            string.getChars(0, length, chars, 0);
+        } else if (value instanceof StringBuilder builder) {
+            builder.getChars(0, length, chars, 0);
+        } else {
+            return null;
+        }
+        return chars;
     }
 
-    private Integer surrounderCodePoint(int codePoint) throws UnescapeStringException {
-        if (this.surrounderCodePoints.length == 0) {
+    // Like scanChars, but only copies the region into the chars of the state, if the state is reused
+    private static char @Nullable [] scanChars(CharSequence value, int start, int end, @Nullable AsciiScanner scanner, UnescapeState state) {
+        if (end - start < MIN_SCAN_LENGTH || scanner == null || !state.reused) {
             return null;
         }
-        for (int surrounderCodePoint : this.surrounderCodePoints) {
-            if (surrounderCodePoint == codePoint) {
-                return codePoint;
+        char[] chars = state.chars(end);
+        if (value instanceof String string) {
+            string.getChars(start, end, chars, start);
+        } else if (value instanceof StringBuilder builder) {
+            builder.getChars(start, end, chars, start);
+        } else {
+            return null;
+        }
+        return chars;
+    }
+
+    // Lets the scanner skip the ASCII chars that are never escaped if there are chars to scan, and checks the other chars one code point at a time
+    private static int nextEscapeIndex(CharSequence value, char @Nullable [] chars, int index, int end, EscapeTable escapeTable) {
+        AsciiScanner scanner = chars == null ? null : escapeTable.scanner();
+        while (index < end) {
+            if (scanner != null && chars[index] < AsciiScanners.ASCII_SIZE) {
+                index = scanner.scan(chars, index, end);
+                if (index == end) {
+                    return end;
+                }
             }
+            int codePoint = CodePointUtil.codePointAt(value, index, end);
+            if (escapeTable.escaped(codePoint) != null) {
+                return index;
+            }
+            index += Character.charCount(codePoint);
         }
-        throw new UnescapeStringException("Expected surrounder to start a string");
+        return end;
     }
 
-    private String unescape(CodePointReader reader, Integer surrounder, int codePoint, int index) throws UnescapeStringException {
-        UnescapeStringException caught = null;
-        int start = reader.index();
-        for (EscapeRule escapeRule : this.escapeRules) {
-            try {
-                @Nullable String unescaped = escapeRule.unescaped(reader, surrounder);
-                if (unescaped == null) {
-                    continue;
+    // Like nextEscapeIndex, but finds the end of the run of plain text that can be copied as is while unescaping
+    private static int nextUnescapeStop(CharSequence value, char @Nullable [] chars, int index, int end, EscapeTable escapeTable) {
+        AsciiScanner scanner = chars == null ? null : escapeTable.unescapeScanner();
+        while (index < end) {
+            if (scanner != null && chars[index] < AsciiScanners.ASCII_SIZE) {
+                index = scanner.scan(chars, index, end);
+                if (index == end) {
+                    return end;
                 }
-                return unescaped;
-            } catch (UnescapeStringException e) {
-                caught = e;
-                reader.index(start);
             }
+            int codePoint = CodePointUtil.codePointAt(value, index, end);
+            if (escapeTable.isUnescapeStop(codePoint)) {
+                return index;
+            }
+            index += Character.charCount(codePoint);
         }
-        String caughtMessage = caught == null ? "" : ": " + caught.getMessage();
-        throw new UnescapeStringException("Invalid escape sequence " + CodePointUtil.toString(this.escapePrefixCodePoint, codePoint, this.escapeSuffixCodePoint) + " at position " + index + caughtMessage);
+        return end;
     }
 
-    private String escapeIfNecessary(int codePoint, Integer surrounderCodePoint) {
-        for (EscapeRule escapeRule : this.escapeRules) {
-            String @Nullable [] escaped = escapeRule.escaped(codePoint, surrounderCodePoint);
-            if (escaped == null) {
-                continue;
+    // Only the length of builders is known, other sinks could be writing anywhere
+    private static int outputLength(CodePointSink output) {
+        if (output instanceof CodePointSink.StringBuilderSink sink) {
+            return sink.builder().length();
+        }
+        if (output instanceof SubstringSink sink) {
+            return sink.length();
+        }
+        return -1;
+    }
+
+    private @Nullable Integer surrounderCodePoint(int codePoint) {
+        for (int surrounderCodePoint : this.surrounderCodePoints) {
+            if (surrounderCodePoint == codePoint) {
+                return codePoint;
             }
-            StringBuilder builder = new StringBuilder();
-            for (String escapedValue : escaped) {
-                builder.appendCodePoint(this.escapePrefixCodePoint);
-                builder.append(escapedValue);
-                CodePointUtil.append(builder, this.escapeSuffixCodePoint);
+        }
+        return null;
+    }
+
+    private int surrounderIndex(Integer surrounderCodePoint) {
+        if (surrounderCodePoint == null) {
+            return 0;
+        }
+        for (int i = 0; i < this.surrounderCodePoints.length; i++) {
+            if (this.surrounderCodePoints[i] == surrounderCodePoint) {
+                return i + 1;
             }
-            return builder.toString();
         }
-        return Character.toString(codePoint);
+        return 0;
     }
 
-    private boolean shouldBeEscaped(int codePoint, Integer surrounder) {
-        for (EscapeRule escapeRule : this.escapeRules) {
-            if (escapeRule.shouldBeEscaped(codePoint, surrounder)) {
+    // Returns false if the escape sequence could be different with more input or if it is invalid, in which case the error is stored in the state
+    private boolean unescapeTo(UnescapeState state, CodePointReader reader, int start, boolean endOfInput, CodePointSink output) {
+        int index = reader.index();
+        reader.clearHitEnd();
+        if (endOfInput) {
+            if (this.escapeRuleTries[state.surrounderIndex].tryUnescapeTo(reader, output)) {
+                return true;
+            }
+        } else {
+            // The sequence is only known to be complete after the rule is done, so it cannot go straight to the output
+            CodePointSink.StringBuilderSink pending = state.pending();
+            boolean unescaped = this.escapeRuleTries[state.surrounderIndex].tryUnescapeTo(reader, pending);
+            if (reader.hitEnd()) {
+                reader.takeError();
+                reader.index(index);
+                return false;
+            }
+            if (unescaped) {
+                output.append(pending.builder());
                 return true;
             }
         }
+        UnescapeError error = reader.takeError();
+        // Escape rules find their errors at indices of the value, rather than of the unescaped region
+        UnescapeError cause = error == null ? null : error.moved(state.readChars - start);
+        // Point at the escape prefix, which is always in the same part of the input as the sequence
+        int sequenceIndex = start + state.sequenceStart - state.readChars;
+        state.error = UnescapeError.invalidEscapeSequence(state.sequenceStart, reader.value(), sequenceIndex, reader.end(), cause);
         return false;
     }
 
+    static class UnescapeState {
+        // Only states that are reused for many values keep chars to scan, copying a single value into a new array costs more than the scanner saves
+        private final boolean reused;
+        private EscapeState state = EscapeState.START_STRING;
+        private Integer surrounder;
+        private int surrounderIndex;
+        private int readCodePoints;
+        private int readChars;
+        private int escapeSequences;
+        private @Nullable UnescapeError error;
+        private CodePointSink.@Nullable StringBuilderSink pending;
+        private char[] chars = new char[0];
+        private @Nullable CodePointReader reader;
+        private @Nullable SequenceListener sequences;
+        private int sequenceStart;
+
+        UnescapeState(boolean reused) {
+            this.reused = reused;
+        }
+
+        boolean isStringClosed() {
+            return this.state == EscapeState.END_STRING;
+        }
+
+        int readChars() {
+            return this.readChars;
+        }
+
+        // Has room for at least the given amount of chars, but could contain chars from an earlier value
+        char[] chars(int length) {
+            if (this.chars.length < length) {
+                this.chars = new char[Math.max(length, this.chars.length * 2)];
+            }
+            return this.chars;
+        }
+
+        private CodePointReader reader(CharSequence value, int start, int end) {
+            if (this.reader == null) {
+                this.reader = new CodePointReader(value, start, end);
+            } else {
+                this.reader.reset(value, start, end);
+            }
+            return this.reader;
+        }
+
+        void trim(int maxCapacity) {
+            if (this.chars.length > maxCapacity) {
+                this.chars = new char[0];
+            }
+        }
+
+        // Keeps the pending builder, the chars and the reader, so the state can be reused for another value
+        void reset() {
+            this.state = EscapeState.START_STRING;
+            this.surrounder = null;
+            this.surrounderIndex = 0;
+            this.readCodePoints = 0;
+            this.readChars = 0;
+            this.escapeSequences = 0;
+            this.error = null;
+            this.sequences = null;
+        }
+
+        @Nullable UnescapeError error() {
+            return this.error;
+        }
+
+        void fail(UnescapeError error) {
+            this.error = error;
+        }
+
+        private CodePointSink.StringBuilderSink pending() {
+            if (this.pending == null) {
+                this.pending = new CodePointSink.StringBuilderSink(new StringBuilder());
+            }
+            this.pending.builder().setLength(0);
+            return this.pending;
+        }
+
+        private void endSequence(int end) {
+            if (this.sequences != null) {
+                this.sequences.sequence(this.sequenceStart, end);
+            }
+        }
+
+        private int position(int start, int index) {
+            return this.readChars + index - start;
+        }
+
+        private void advance(CharSequence value, int start, int index) {
+            this.readCodePoints += Character.codePointCount(value, start, index);
+            this.readChars += index - start;
+        }
+    }
+
+    // Positions are the amount of chars from the start of the value, the end is after the escape suffix if there is one
+    @FunctionalInterface
+    interface SequenceListener {
+        void sequence(int start, int end);
+    }
+
+    // Remembers the first run of the input instead of copying it, so values without any escape sequences end up as a single substring of the input.
+    // Only starts a builder once anything else is written, taking it from the session if there is one.
+    private static class SubstringSink implements CodePointSink {
+        private final CharSequence value;
+        private final @Nullable EscapeSession session;
+        private final int capacity;
+        private @Nullable StringBuilder builder;
+        private int runStart = -1;
+        private int runEnd;
+
+        private SubstringSink(CharSequence value, @Nullable EscapeSession session, int capacity) {
+            this.value = value;
+            this.session = session;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void append(char c) {
+            this.builder().append(c);
+        }
+
+        @Override
+        public void appendCodePoint(int codePoint) {
+            this.builder().appendCodePoint(codePoint);
+        }
+
+        @Override
+        public void append(CharSequence value, int start, int end) {
+            if (value == this.value && this.builder == null) {
+                if (this.runStart == -1) {
+                    this.runStart = start;
+                    this.runEnd = end;
+                    return;
+                }
+                if (start == this.runEnd) {
+                    this.runEnd = end;
+                    return;
+                }
+            }
+            this.builder().append(value, start, end);
+        }
+
+        private int length() {
+            if (this.builder != null) {
+                return this.builder.length();
+            }
+            return this.runStart == -1 ? 0 : this.runEnd - this.runStart;
+        }
+
+        private StringBuilder builder() {
+            if (this.builder == null) {
+                this.builder = this.session == null ? new StringBuilder(this.capacity) : this.session.builder(this.capacity);
+                if (this.runStart != -1) {
+                    this.builder.append(this.value, this.runStart, this.runEnd);
+                }
+            }
+            return this.builder;
+        }
+
+        @Override
+        public String toString() {
+            if (this.builder != null) {
+                return this.builder.toString();
+            }
+            return this.runStart == -1 ? "" : this.value.subSequence(this.runStart, this.runEnd).toString();
+        }
+    }
+
     private enum EscapeState {
         START_STRING,
         END_STRING,
@@ -214,6 +902,8 @@ public class StringEscaper {
         private Integer escapeSuffixCodePoint;
         private final List<EscapeRule> escapeRules = new ArrayList<>();
         private boolean strictSurroundEscape;
+        private boolean cheapestSurrounder;
+        private @Nullable String name;
 
         private Builder(int escapePrefixCodePoint, String escapePrefixString) {
             this.escapePrefixCodePoint = escapePrefixCodePoint;
@@ -229,7 +919,12 @@ public class StringEscaper {
             }
             allEscapeRules.add(CharacterEscapeRule.ofAlwaysEscape(this.escapePrefixCodePoint, this.escapePrefixString));
             allEscapeRules.addAll(this.escapeRules);
-            return new StringEscaper(this.surrounderCodePoints.keySet().toIntArray(), this.escapePrefixCodePoint, this.escapeSuffixCodePoint, allEscapeRules.toArray(EscapeRule[]::new));
+            return new StringEscaper(this.name, this.surrounderCodePoints.keySet().toIntArray(), this.escapePrefixCodePoint, this.escapeSuffixCodePoint, allEscapeRules.toArray(EscapeRule[]::new), this.cheapestSurrounder);
+        }
+
+        public Builder name(String name) {
+            this.name = Objects.requireNonNull(name);
+            return this;
         }
 
         public Builder suffix(int codePoint) {
@@ -242,6 +937,13 @@ public class StringEscaper {
             return this;
         }
 
+        // Escapes with the surrounder that gives the shortest output instead of always using the first one, at the cost of an extra pass over the value.
+        // Streaming escapes still use the first surrounder, as they cannot look ahead.
+        public Builder cheapestSurrounder() {
+            this.cheapestSurrounder = true;
+            return this;
+        }
+
         public Builder surrounder(int codePoint, String escaped) {
             this.surrounderCodePoints.put(codePoint, Objects.requireNonNull(escaped));
             return this;
@@ -5,6 +5,7 @@ import net.errorcraft.escapegoat.rule.UnicodeEscapeRule;
 
 public class StringEscapers {
     public static final StringEscaper JSON = StringEscaper.builder('\\', "\\")
+        .name("JSON")
         .surrounder('"', "\"")
         .rule(CharacterEscapeRule.ofOptionalEscape('/', "/"))
         .rule(CharacterEscapeRule.ofAlwaysEscape('\b', "b"))
@@ -20,6 +21,7 @@ public class StringEscapers {
             .build())
         .build();
     public static final StringEscaper JAVA = StringEscaper.builder('\\', "\\")
+        .name("JAVA")
         .surrounder('"', "\"")
         .rule(CharacterEscapeRule.ofOptionalEscape('\'', "'"))
         .rule(CharacterEscapeRule.ofAlwaysEscape('\b', "b"))
@@ -43,9 +45,11 @@ public class StringEscapers {
             .build())
         .build();
     public static final StringEscaper SNBT = StringEscaper.builder('\\', "\\")
+        .name("SNBT")
         .surrounder('\'', "'")
         .surrounder('"', "\"")
         .strictSurroundEscape()
+        .cheapestSurrounder()
         .rule(CharacterEscapeRule.ofAlwaysEscape('\n', "n"))
         .rule(UnicodeEscapeRule.builder(Character::isISOControl)
             .prefix("u")
@@ -61,6 +65,12 @@ public class StringEscapers {
             .maxLength(6)
             .build())
         .build();
+    // Used by NbtString.escape, which keeps escaping the same ids, names and lore lines
+    public static final EscapeCache SNBT_CACHE = EscapeCache.builder(SNBT)
+        .minLength(4)
+        .maxLength(256)
+        .maxSize(8192)
+        .build();
 
     private StringEscapers() {}
 }
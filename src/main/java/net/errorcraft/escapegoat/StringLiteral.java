@@ -0,0 +1,61 @@
+package net.errorcraft.escapegoat;
+
+import org.jetbrains.annotations.Nullable;
+
+// A string literal found by a LiteralTokenizer, from its opening surrounder up to and including its closing surrounder.
+// Invalid literals end at the closing surrounder that is found by skipping the code point after every escape prefix, or at the end of the text.
+public final class StringLiteral {
+    private final int start;
+    private final int end;
+    private final @Nullable String value;
+    private final @Nullable UnescapeError error;
+    // Start and end of every escape sequence relative to the start of the literal, so moving the literal does not change them
+    private final int[] sequences;
+
+    StringLiteral(int start, int end, @Nullable String value, @Nullable UnescapeError error, int[] sequences) {
+        this.start = start;
+        this.end = end;
+        this.value = value;
+        this.error = error;
+        this.sequences = sequences;
+    }
+
+    public int start() {
+        return this.start;
+    }
+
+    public int end() {
+        return this.end;
+    }
+
+    public boolean isValid() {
+        return this.error == null;
+    }
+
+    public @Nullable String value() {
+        return this.value;
+    }
+
+    // The position of the error is relative to the start of the literal
+    public @Nullable UnescapeError error() {
+        return this.error;
+    }
+
+    // Escape sequences before the error if the literal is invalid
+    public int sequenceCount() {
+        return this.sequences.length / 2;
+    }
+
+    public int sequenceStart(int index) {
+        return this.start + this.sequences[index * 2];
+    }
+
+    // Includes the escape suffix if there is one
+    public int sequenceEnd(int index) {
+        return this.start + this.sequences[index * 2 + 1];
+    }
+
+    StringLiteral move(int offset) {
+        return new StringLiteral(this.start + offset, this.end + offset, this.value, this.error, this.sequences);
+    }
+}
@@ -6,5 +6,8 @@ public record UnescapeContext(boolean throwOnTrailingCodePoints, Callback callba
     @FunctionalInterface
     public interface Callback {
         void apply(int readCodePoints, int readChars);
+
+        // Called instead of apply if the string could not be unescaped
+        default void failed(UnescapeError error) {}
     }
 }
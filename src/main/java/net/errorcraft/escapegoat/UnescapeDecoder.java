@@ -0,0 +1,137 @@
+package net.errorcraft.escapegoat;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.CharBuffer;
+
+// Unescapes a string that arrives in chunks, writing everything that can be unescaped so far to the output and keeping its state for the next chunk.
+// Escape sequences, escape suffixes and surrogate pairs that are split between chunks are kept until a chunk completes them.
+// The callback of the context is called once the decoder is done, with either the amount of read code points and chars or the error.
+public class UnescapeDecoder {
+    // Escape sequences longer than this are rejected rather than keeping more of the input
+    static final int MAX_PENDING_SIZE = 1 << 16;
+
+    private final StringEscaper escaper;
+    private final UnescapeContext context;
+    private final StringEscaper.UnescapeState state = new StringEscaper.UnescapeState(true);
+    // Chars of earlier chunks that could not be unescaped yet
+    private final StringBuilder pending = new StringBuilder();
+    private Stage stage = Stage.DECODING;
+
+    public UnescapeDecoder(StringEscaper escaper) {
+        this(escaper, UnescapeContext.DEFAULT);
+    }
+
+    public UnescapeDecoder(StringEscaper escaper, UnescapeContext context) {
+        this.escaper = escaper;
+        this.context = context;
+    }
+
+    public StringEscaper escaper() {
+        return this.escaper;
+    }
+
+    // Starts over with a new string
+    public UnescapeDecoder reset() {
+        this.state.reset();
+        this.pending.setLength(0);
+        this.stage = Stage.DECODING;
+        return this;
+    }
+
+    public boolean isDone() {
+        return this.stage == Stage.DONE;
+    }
+
+    public @Nullable UnescapeError error() {
+        return this.state.error();
+    }
+
+    public boolean decode(CharBuffer input, StringBuilder output, boolean endOfInput) {
+        return this.decode(input, CodePointSink.of(output), endOfInput);
+    }
+
+    // Returns true once the decoder is done, because the string was closed, an error was found or the end of the input was reached.
+    // The whole chunk is consumed, unless the string was closed in it: then the input is left right after the closing surrounder.
+    public boolean decode(CharBuffer input, CodePointSink output, boolean endOfInput) {
+        if (this.stage == Stage.DECODING) {
+            this.decodeContent(input, output, endOfInput);
+        }
+        if (this.stage == Stage.CLOSED) {
+            this.checkTrailing(input, endOfInput);
+        }
+        return this.isDone();
+    }
+
+    private void decodeContent(CharBuffer input, CodePointSink output, boolean endOfInput) {
+        int carried = this.pending.length();
+        CharSequence value = input;
+        if (carried > 0) {
+            this.pending.append(input);
+            value = this.pending;
+        }
+        int end = value.length();
+        int index = this.escaper.unescapeTo(this.state, value, 0, end, endOfInput, output);
+        if (this.state.isStringClosed() || this.state.error() != null) {
+            if (index >= carried) {
+                input.position(input.position() + index - carried);
+                this.pending.setLength(0);
+            } else {
+                // Only possible if the string was closed in an earlier chunk, those chars are checked as trailing chars
+                this.pending.setLength(carried);
+                this.pending.delete(0, index);
+            }
+            if (this.state.error() != null) {
+                this.finish();
+            } else {
+                this.stage = Stage.CLOSED;
+            }
+            return;
+        }
+        if (carried > 0) {
+            this.pending.delete(0, index);
+        } else {
+            this.pending.append(value, index, end);
+        }
+        input.position(input.limit());
+        if (endOfInput) {
+            this.finish();
+        } else if (this.pending.length() > MAX_PENDING_SIZE) {
+            this.state.fail(UnescapeError.escapeSequenceTooLong(this.state.readChars(), MAX_PENDING_SIZE));
+            this.finish();
+        }
+    }
+
+    // Trailing chars could still arrive in a later chunk, so the decoder is only done once there are any or the input ends
+    private void checkTrailing(CharBuffer input, boolean endOfInput) {
+        if (!this.context.throwOnTrailingCodePoints()) {
+            this.finish();
+            return;
+        }
+        if (!this.pending.isEmpty()) {
+            this.escaper.checkTrailing(this.state, this.pending, 0, this.pending.length(), this.context);
+            this.finish();
+        } else if (input.hasRemaining()) {
+            this.escaper.checkTrailing(this.state, input, 0, input.remaining(), this.context);
+            this.finish();
+        } else if (endOfInput) {
+            this.finish();
+        }
+    }
+
+    private void finish() {
+        this.pending.setLength(0);
+        this.escaper.finishUnescape(this.state, this.context);
+        if (this.state.error() != null) {
+            this.escaper.commitFailed(this.state);
+        }
+        this.stage = Stage.DONE;
+    }
+
+    private enum Stage {
+        DECODING,
+        // Waiting to see whether there are chars after the closing surrounder
+        CLOSED,
+        DONE
+    }
+}
@@ -0,0 +1,175 @@
+package net.errorcraft.escapegoat;
+
+import org.jetbrains.annotations.Nullable;
+
+// Why a string could not be unescaped. The message is only built when it is asked for, as invalid input gets parsed over and over while it is being typed.
+public final class UnescapeError {
+    public static final int UNKNOWN_POSITION = -1;
+    private static final int NO_CODE_POINT = -1;
+    // Enough chars for the four code points shown by CodePointUtil.toStringEllipsis and one more to tell whether there is an ellipsis
+    private static final int SNAPSHOT_LENGTH = 9;
+
+    private final Kind kind;
+    private final int position;
+    // Meaning depends on the kind, see the messages
+    private final int expected;
+    private final int actual;
+    private final @Nullable CharSequence value;
+    private final int index;
+    private final int end;
+    private final @Nullable UnescapeError cause;
+    private @Nullable String message;
+
+    private UnescapeError(Kind kind, int position, int expected, int actual, @Nullable CharSequence value, int index, int end, @Nullable UnescapeError cause, @Nullable String message) {
+        this.kind = kind;
+        this.position = position;
+        this.expected = expected;
+        this.actual = actual;
+        if (value != null && !(value instanceof String)) {
+            // The value could change before the message is built
+            end = Math.min(end, index + SNAPSHOT_LENGTH);
+            value = value.subSequence(index, end).toString();
+            end -= index;
+            index = 0;
+        }
+        this.value = value;
+        this.index = index;
+        this.end = end;
+        this.cause = cause;
+        this.message = message;
+    }
+
+    public static UnescapeError missingSurrounder(int position) {
+        return new UnescapeError(Kind.MISSING_SURROUNDER, position, NO_CODE_POINT, NO_CODE_POINT, null, 0, 0, null, null);
+    }
+
+    public static UnescapeError unclosedString(int position, int surrounderCodePoint) {
+        return new UnescapeError(Kind.UNCLOSED_STRING, position, surrounderCodePoint, NO_CODE_POINT, null, 0, 0, null, null);
+    }
+
+    public static UnescapeError trailingCharacters(int position, CharSequence value, int index, int end) {
+        return new UnescapeError(Kind.TRAILING_CHARACTERS, position, NO_CODE_POINT, NO_CODE_POINT, value, index, end, null, null);
+    }
+
+    public static UnescapeError unescapedCharacter(int position, int codePoint, CharSequence value, int index, int end) {
+        return new UnescapeError(Kind.UNESCAPED_CHARACTER, position, NO_CODE_POINT, codePoint, value, index, end, null, null);
+    }
+
+    // The value should start at the escape prefix
+    public static UnescapeError invalidEscapeSequence(int position, CharSequence value, int index, int end, @Nullable UnescapeError cause) {
+        return new UnescapeError(Kind.INVALID_ESCAPE_SEQUENCE, position, NO_CODE_POINT, NO_CODE_POINT, value, index, end, cause, null);
+    }
+
+    public static UnescapeError missingEscapeSuffix(int position, int suffixCodePoint, CharSequence value, int index, int end) {
+        return new UnescapeError(Kind.MISSING_ESCAPE_SUFFIX, position, suffixCodePoint, CodePointUtil.codePointAt(value, index, end), value, index, end, null, null);
+    }
+
+    public static UnescapeError missingEscapeSuffixAtEnd(int position, int suffixCodePoint) {
+        return new UnescapeError(Kind.MISSING_ESCAPE_SUFFIX, position, suffixCodePoint, NO_CODE_POINT, null, 0, 0, null, null);
+    }
+
+    public static UnescapeError incompleteEscapeSequence(int position) {
+        return new UnescapeError(Kind.INCOMPLETE_ESCAPE_SEQUENCE, position, NO_CODE_POINT, NO_CODE_POINT, null, 0, 0, null, null);
+    }
+
+    public static UnescapeError escapeSequenceTooLong(int position, int maxLength) {
+        return new UnescapeError(Kind.ESCAPE_SEQUENCE_TOO_LONG, position, maxLength, NO_CODE_POINT, null, 0, 0, null, null);
+    }
+
+    // The value should be the part of the sequence that was read
+    public static UnescapeError sequenceTooShort(int position, int minLength, int foundCodePoints, CharSequence value, int index, int end) {
+        return new UnescapeError(Kind.SEQUENCE_TOO_SHORT, position, minLength, foundCodePoints, value, index, end, null, null);
+    }
+
+    public static UnescapeError codePointTooLarge(int position, int maxCodePoint, int codePoint) {
+        return new UnescapeError(Kind.CODE_POINT_TOO_LARGE, position, maxCodePoint, codePoint, null, 0, 0, null, null);
+    }
+
+    public static UnescapeError other(int position, String message) {
+        return new UnescapeError(Kind.OTHER, position, NO_CODE_POINT, NO_CODE_POINT, null, 0, 0, null, message);
+    }
+
+    public Kind kind() {
+        return this.kind;
+    }
+
+    // The index of the char where the error was found, or UNKNOWN_POSITION.
+    // Counted from the start of the unescaped region, also for the cause, even though escape rules find their errors at indices of the whole value.
+    public int position() {
+        return this.position;
+    }
+
+    // The error of the escape rule that made an escape sequence invalid, if any
+    public @Nullable UnescapeError cause() {
+        return this.cause;
+    }
+
+    // The same error at a position that is offset chars further, with the cause moved along with it
+    UnescapeError moved(int offset) {
+        int position = this.position == UNKNOWN_POSITION ? UNKNOWN_POSITION : this.position + offset;
+        UnescapeError cause = this.cause == null ? null : this.cause.moved(offset);
+        // Messages of other errors can contain the position, so only the given message is kept
+        String message = this.kind == Kind.OTHER ? this.message : null;
+        return new UnescapeError(this.kind, position, this.expected, this.actual, this.value, this.index, this.end, cause, message);
+    }
+
+    public String message() {
+        if (this.message == null) {
+            this.message = this.buildMessage();
+        }
+        return this.message;
+    }
+
+    public UnescapeStringException toException() {
+        return new UnescapeStringException(this);
+    }
+
+    @Override
+    public String toString() {
+        return this.message();
+    }
+
+    private String buildMessage() {
+        return switch (this.kind) {
+            case MISSING_SURROUNDER -> "Expected surrounder to start a string";
+            case UNCLOSED_STRING -> "Unclosed string, expected " + escapeCodePoint(this.expected) + " to close the string";
+            case TRAILING_CHARACTERS -> "Trailing characters found in string at position " + this.position + ": " + this.valueEllipsis();
+            case UNESCAPED_CHARACTER -> "Character " + escapeCodePoint(this.actual) + " with code point " + this.actual + " should be escaped at position " + this.position + ": " + this.valueEllipsis();
+            case INVALID_ESCAPE_SEQUENCE -> "Invalid escape sequence " + this.valueEllipsis() + " at position " + this.position + (this.cause == null ? "" : ": " + this.cause.message());
+            case MISSING_ESCAPE_SUFFIX -> this.actual == NO_CODE_POINT
+                ? "Expected " + escapeCodePoint(this.expected) + " to end an escape sequence at end of string"
+                : "Expected " + escapeCodePoint(this.expected) + " to end an escape sequence at position " + this.position + ", got code point " + this.actual + " instead: " + this.valueEllipsis();
+            case INCOMPLETE_ESCAPE_SEQUENCE -> "Ended string with an incomplete escape sequence";
+            case ESCAPE_SEQUENCE_TOO_LONG -> "Escape sequence at position " + this.position + " is longer than " + this.expected + " characters";
+            case SEQUENCE_TOO_SHORT -> "Sequence must be at least " + this.expected + " code point(s) long, got " + this.actual + " instead: " + this.valueEllipsis();
+            case CODE_POINT_TOO_LARGE -> "Code point must be at most " + this.expected + ": " + this.actual;
+            case OTHER -> "";
+        };
+    }
+
+    private String valueEllipsis() {
+        if (this.value == null) {
+            return "";
+        }
+        return CodePointUtil.toStringEllipsis(this.value, this.index, this.end);
+    }
+
+    private static String escapeCodePoint(int codePoint) {
+        return StringEscaper.EXCEPTION_STRING_ESCAPER.escapeCodePoint(codePoint);
+    }
+
+    public enum Kind {
+        MISSING_SURROUNDER,
+        UNCLOSED_STRING,
+        TRAILING_CHARACTERS,
+        UNESCAPED_CHARACTER,
+        INVALID_ESCAPE_SEQUENCE,
+        MISSING_ESCAPE_SUFFIX,
+        INCOMPLETE_ESCAPE_SEQUENCE,
+        ESCAPE_SEQUENCE_TOO_LONG,
+        SEQUENCE_TOO_SHORT,
+        CODE_POINT_TOO_LARGE,
+        // Thrown by an escape rule with just a message
+        OTHER
+    }
+}
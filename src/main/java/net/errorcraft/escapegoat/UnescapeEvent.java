@@ -0,0 +1,28 @@
+package net.errorcraft.escapegoat;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("escapegoat.Unescape")
+@Label("Unescape")
+@Category("Escapegoat")
+@Description("A string was unescaped")
+@Threshold("20 ms")
+class UnescapeEvent extends jdk.jfr.Event {
+    @Label("Escaper")
+    String escaper;
+
+    @Label("Input Length")
+    @Description("The amount of chars read, up to and including the closing surrounder")
+    int inputLength;
+
+    @Label("Output Length")
+    @Description("The length of the unescaped value in chars, or -1 if it was unescaped into a custom sink")
+    int outputLength;
+
+    @Label("Escape Sequences")
+    int escapeSequences;
+}
@@ -0,0 +1,29 @@
+package net.errorcraft.escapegoat;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("escapegoat.UnescapeFailed")
+@Label("Unescape Failed")
+@Category("Escapegoat")
+@Description("A string could not be unescaped")
+class UnescapeFailedEvent extends jdk.jfr.Event {
+    @Label("Escaper")
+    String escaper;
+
+    @Label("Input Length")
+    @Description("The amount of chars read before the error was found")
+    int inputLength;
+
+    @Label("Position")
+    @Description("The position of the error in chars from the start of the value")
+    int position;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Message")
+    String message;
+}
@@ -0,0 +1,25 @@
+package net.errorcraft.escapegoat;
+
+import org.jetbrains.annotations.Nullable;
+
+// Either the unescaped string or the error that stopped it from being unescaped
+public record UnescapeResult(@Nullable String value, @Nullable UnescapeError error) {
+    public static UnescapeResult success(String value) {
+        return new UnescapeResult(value, null);
+    }
+
+    public static UnescapeResult failure(UnescapeError error) {
+        return new UnescapeResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    public String getOrThrow() throws UnescapeStringException {
+        if (this.error != null) {
+            throw this.error.toException();
+        }
+        return this.value;
+    }
+}
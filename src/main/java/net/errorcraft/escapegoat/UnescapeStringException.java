@@ -1,7 +1,24 @@
 package net.errorcraft.escapegoat;
 
+// Has no stack trace and only builds its message when it is asked for, as these get thrown for every invalid string
 public class UnescapeStringException extends RuntimeException {
+    private final UnescapeError error;
+
     public UnescapeStringException(String message) {
-        super(message);
+        this(UnescapeError.other(UnescapeError.UNKNOWN_POSITION, message));
+    }
+
+    public UnescapeStringException(UnescapeError error) {
+        super(null, null, false, false);
+        this.error = error;
+    }
+
+    public UnescapeError error() {
+        return this.error;
+    }
+
+    @Override
+    public String getMessage() {
+        return this.error.message();
     }
 }
@@ -0,0 +1,83 @@
+package net.errorcraft.escapegoat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+// Unescapes a string read from the underlying reader on the fly, stopping at the closing surrounder of the string
+public class UnescapingReader extends Reader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final UnescapeDecoder decoder;
+    private final char[] input = new char[BUFFER_SIZE];
+    private final CharBuffer inputView = CharBuffer.wrap(this.input);
+    private final StringBuilder output = new StringBuilder(BUFFER_SIZE);
+    private final CodePointSink outputSink = CodePointSink.of(this.output);
+    private int outputIndex;
+    private boolean closed;
+
+    public UnescapingReader(Reader in, StringEscaper escaper) {
+        this(in, escaper, UnescapeContext.DEFAULT);
+    }
+
+    public UnescapingReader(Reader in, StringEscaper escaper, UnescapeContext context) {
+        this.in = in;
+        this.decoder = new UnescapeDecoder(escaper, context);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        this.ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        while (this.outputIndex == this.output.length()) {
+            if (this.decoder.isDone()) {
+                UnescapeError error = this.decoder.error();
+                if (error != null) {
+                    throw error.toException();
+                }
+                return -1;
+            }
+            this.output.setLength(0);
+            this.outputIndex = 0;
+            this.decode();
+        }
+        int read = Math.min(len, this.output.length() - this.outputIndex);
+        this.output.getChars(this.outputIndex, this.outputIndex + read, cbuf, off);
+        this.outputIndex += read;
+        return read;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        this.ensureOpen();
+        return this.outputIndex < this.output.length();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.in.close();
+    }
+
+    // Chars after the closing surrounder are left in the buffer, they are only read to check for trailing chars
+    private void decode() throws IOException {
+        int read = this.in.read(this.input, 0, this.input.length);
+        this.inputView.clear();
+        if (read == -1) {
+            this.inputView.limit(0);
+            this.decoder.decode(this.inputView, this.outputSink, true);
+        } else {
+            this.inputView.limit(read);
+            this.decoder.decode(this.inputView, this.outputSink, false);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Reader is closed");
+        }
+    }
+}
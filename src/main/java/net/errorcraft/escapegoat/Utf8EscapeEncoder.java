@@ -0,0 +1,165 @@
+package net.errorcraft.escapegoat;
+
+import java.nio.ByteBuffer;
+
+// Escapes a string straight into UTF-8 bytes, stopping when the output is full so the caller can make room and continue.
+// Code points and escape sequences are never split across outputs.
+public class Utf8EscapeEncoder {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final StringEscaper escaper;
+    private final EscapeTable escapeTable;
+    private final Integer surrounderCodePoint;
+    private byte[] transferBuffer;
+    private CharSequence value = "";
+    private int index;
+    private int end;
+    private State state = State.DONE;
+
+    public Utf8EscapeEncoder(StringEscaper escaper) {
+        this.escaper = escaper;
+        this.escapeTable = escaper.escapeTable();
+        this.surrounderCodePoint = escaper.surrounderCodePoint();
+    }
+
+    public StringEscaper escaper() {
+        return this.escaper;
+    }
+
+    public Utf8EscapeEncoder reset(CharSequence value) {
+        return this.reset(value, 0, value.length());
+    }
+
+    public Utf8EscapeEncoder reset(CharSequence value, int start, int end) {
+        this.value = value;
+        this.index = start;
+        this.end = end;
+        this.state = State.START_STRING;
+        return this;
+    }
+
+    public boolean isDone() {
+        return this.state == State.DONE;
+    }
+
+    // Returns true once the whole escaped string has been written, or false if the output ran out of room first
+    public boolean encode(ByteBuffer output) {
+        if (output.hasArray() && !output.isReadOnly()) {
+            int offset = output.arrayOffset();
+            int position = this.encodeUntil(output.array(), offset + output.position(), offset + output.limit());
+            output.position(position - offset);
+            return this.isDone();
+        }
+        while (!this.isDone()) {
+            int remaining = output.remaining();
+            if (this.transferBuffer == null) {
+                this.transferBuffer = new byte[BUFFER_SIZE];
+            }
+            int length = Math.min(remaining, this.transferBuffer.length);
+            int written = this.encode(this.transferBuffer, 0, length);
+            if (written == 0 && !this.isDone()) {
+                if (length == remaining) {
+                    return false;
+                }
+                // The next escape sequence does not fit in the transfer buffer, but it may fit in the output
+                this.transferBuffer = new byte[remaining];
+                continue;
+            }
+            output.put(this.transferBuffer, 0, written);
+        }
+        return true;
+    }
+
+    // Returns the amount of bytes written, isDone tells whether the whole escaped string has been written
+    public int encode(byte[] output, int offset, int length) {
+        return this.encodeUntil(output, offset, offset + length) - offset;
+    }
+
+    private int encodeUntil(byte[] output, int offset, int limit) {
+        if (this.state == State.START_STRING) {
+            if (this.surrounderCodePoint != null) {
+                if (limit - offset < CodePointUtil.utf8Length(this.surrounderCodePoint)) {
+                    return offset;
+                }
+                offset = CodePointUtil.putUtf8(output, offset, this.surrounderCodePoint);
+            }
+            this.state = State.CONTENT;
+        }
+        if (this.state == State.CONTENT) {
+            offset = this.encodeContent(output, offset, limit);
+            if (this.index < this.end) {
+                return offset;
+            }
+            this.state = State.END_STRING;
+        }
+        if (this.state == State.END_STRING) {
+            if (this.surrounderCodePoint != null) {
+                if (limit - offset < CodePointUtil.utf8Length(this.surrounderCodePoint)) {
+                    return offset;
+                }
+                offset = CodePointUtil.putUtf8(output, offset, this.surrounderCodePoint);
+            }
+            this.state = State.DONE;
+        }
+        return offset;
+    }
+
+    private int encodeContent(byte[] output, int offset, int limit) {
+        CharSequence value = this.value;
+        EscapeTable escapeTable = this.escapeTable;
+        int index = this.index;
+        int end = this.end;
+        while (index < end) {
+            // ASCII that does not need escaping is copied one char to one byte
+            char c;
+            while (offset < limit && (c = value.charAt(index)) < 0x80 && escapeTable.escaped(c) == null) {
+                output[offset++] = (byte) c;
+                if (++index == end) {
+                    break;
+                }
+            }
+            if (index == end || offset == limit) {
+                break;
+            }
+            int codePoint = CodePointUtil.codePointAt(value, index, end);
+            String escaped = escapeTable.escaped(codePoint);
+            if (escaped == null) {
+                if (limit - offset < CodePointUtil.utf8Length(codePoint)) {
+                    break;
+                }
+                offset = CodePointUtil.putUtf8(output, offset, codePoint);
+            } else {
+                if (limit - offset < CodePointUtil.utf8Length(escaped)) {
+                    break;
+                }
+                offset = putUtf8(output, offset, escaped);
+            }
+            index += Character.charCount(codePoint);
+        }
+        this.index = index;
+        return offset;
+    }
+
+    private static int putUtf8(byte[] output, int offset, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; ) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                output[offset++] = (byte) c;
+                i++;
+                continue;
+            }
+            int codePoint = CodePointUtil.codePointAt(value, i, length);
+            offset = CodePointUtil.putUtf8(output, offset, codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return offset;
+    }
+
+    private enum State {
+        START_STRING,
+        CONTENT,
+        END_STRING,
+        DONE
+    }
+}
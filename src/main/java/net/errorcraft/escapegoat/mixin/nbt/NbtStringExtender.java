@@ -13,6 +13,6 @@ public class NbtStringExtender {
      */
     @Overwrite
     public static String escape(String value) {
-        return StringEscapers.SNBT.escape(value);
+        return StringEscapers.SNBT_CACHE.escape(value);
     }
 }
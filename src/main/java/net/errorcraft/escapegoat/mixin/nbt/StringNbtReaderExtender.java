@@ -4,9 +4,11 @@ import com.mojang.brigadier.LiteralMessage;
 import com.mojang.brigadier.StringReader;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import net.errorcraft.escapegoat.LiteralTokenizer;
 import net.errorcraft.escapegoat.StringEscapers;
+import net.errorcraft.escapegoat.StringLiteral;
 import net.errorcraft.escapegoat.UnescapeContext;
-import net.errorcraft.escapegoat.UnescapeStringException;
+import net.errorcraft.escapegoat.UnescapeResult;
 import net.minecraft.nbt.StringNbtReader;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -36,10 +38,16 @@ public class StringNbtReaderExtender {
         )
     )
     private String useStringEscaperInstead(StringReader instance) throws CommandSyntaxException {
-        try {
-            return StringEscapers.SNBT.unescape(this.reader.getRemaining(), this.context);
-        } catch (UnescapeStringException e) {
-            throw ESCAPE_EXCEPTION.createWithContext(this.reader, e.getMessage());
+        LiteralTokenizer tokenizer = LiteralTokenizer.parsing();
+        StringLiteral literal = tokenizer == null ? null : tokenizer.literalAt(this.reader.getString(), this.reader.getCursor());
+        if (literal != null && literal.isValid()) {
+            this.reader.setCursor(literal.end());
+            return literal.value();
         }
+        UnescapeResult result = StringEscapers.SNBT.tryUnescape(this.reader.getString(), this.reader.getCursor(), this.reader.getTotalLength(), this.context);
+        if (result.isSuccess()) {
+            return result.value();
+        }
+        throw ESCAPE_EXCEPTION.createWithContext(this.reader, result.error().message());
     }
 }
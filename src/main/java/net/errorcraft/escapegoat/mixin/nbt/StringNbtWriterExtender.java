@@ -0,0 +1,25 @@
+package net.errorcraft.escapegoat.mixin.nbt;
+
+import net.errorcraft.escapegoat.StringEscapers;
+import net.minecraft.nbt.NbtString;
+import net.minecraft.nbt.visitor.StringNbtWriter;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+
+@Mixin(StringNbtWriter.class)
+public class StringNbtWriterExtender {
+    @Shadow
+    @Final
+    private StringBuilder result;
+
+    /**
+     * @author ErrorCraft
+     * @reason Escapes straight into the result instead of creating a new string for every tag first.
+     */
+    @Overwrite
+    public void visitString(NbtString element) {
+        StringEscapers.SNBT.escapeTo(element.value(), this.result);
+    }
+}
@@ -1,7 +1,7 @@
 package net.errorcraft.escapegoat.rule;
 
 import net.errorcraft.escapegoat.CodePointReader;
-import org.jetbrains.annotations.Nullable;
+import net.errorcraft.escapegoat.CodePointSink;
 
 import java.util.Objects;
 
@@ -15,23 +15,32 @@ public record CharacterEscapeRule(int targetCodePoint, String escaped, boolean a
     }
 
     @Override
-    public String @Nullable [] escaped(int codePoint, Integer surrounderCodePoint) {
+    public boolean escapeTo(int codePoint, int surrounderCodePoint, SequenceSink sink) {
         if (this.alwaysEscape && codePoint == this.targetCodePoint) {
-            return new String[] { this.escaped };
+            sink.startSequence();
+            sink.append(this.escaped);
+            sink.endSequence();
+            return true;
         }
-        return null;
+        return false;
     }
 
     @Override
-    public @Nullable String unescaped(CodePointReader reader, Integer surrounderCodePoint) {
+    public boolean unescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) {
         if (reader.trySkipNext(this.escaped)) {
-            return Character.toString(this.targetCodePoint);
+            output.appendCodePoint(this.targetCodePoint);
+            return true;
         }
-        return null;
+        return false;
     }
 
     @Override
-    public boolean shouldBeEscaped(int codePoint, Integer surrounderCodePoint) {
+    public boolean shouldBeEscaped(int codePoint, int surrounderCodePoint) {
         return codePoint == this.targetCodePoint && this.alwaysEscape;
     }
+
+    @Override
+    public String prefix(int surrounderCodePoint) {
+        return this.escaped;
+    }
 }
@@ -1,8 +1,7 @@
 package net.errorcraft.escapegoat.rule;
 
 import net.errorcraft.escapegoat.CodePointReader;
-import net.errorcraft.escapegoat.UnescapeStringException;
-import org.jetbrains.annotations.Nullable;
+import net.errorcraft.escapegoat.CodePointSink;
 
 public record EmptyEscapeRule(String escaped) implements EscapeRule {
     public static EmptyEscapeRule of(String escaped) {
@@ -10,20 +9,22 @@ public record EmptyEscapeRule(String escaped) implements EscapeRule {
     }
 
     @Override
-    public String @Nullable [] escaped(int codePoint, Integer surrounderCodePoint) {
-        return null;
+    public boolean escapeTo(int codePoint, int surrounderCodePoint, SequenceSink sink) {
+        return false;
     }
 
     @Override
-    public @Nullable String unescaped(CodePointReader reader, Integer surrounderCodePoint) throws UnescapeStringException {
-        if (reader.trySkipNext(this.escaped)) {
-            return "";
-        }
-        return null;
+    public boolean unescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) {
+        return reader.trySkipNext(this.escaped);
     }
 
     @Override
-    public boolean shouldBeEscaped(int codePoint, Integer surrounderCodePoint) {
+    public boolean shouldBeEscaped(int codePoint, int surrounderCodePoint) {
         return false;
     }
+
+    @Override
+    public String prefix(int surrounderCodePoint) {
+        return this.escaped;
+    }
 }
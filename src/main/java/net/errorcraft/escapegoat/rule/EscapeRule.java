@@ -1,11 +1,98 @@
 package net.errorcraft.escapegoat.rule;
 
 import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
 import net.errorcraft.escapegoat.UnescapeStringException;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface EscapeRule {
-    String @Nullable [] escaped(int codePoint, Integer surrounderCodePoint);
-    @Nullable String unescaped(CodePointReader reader, Integer surrounderCodePoint) throws UnescapeStringException;
-    boolean shouldBeEscaped(int codePoint, Integer surrounderCodePoint);
+    // Surrounder code point used when the string has no surrounder
+    int NO_SURROUNDER = -1;
+
+    // Writes every escape sequence for the code point to the sink and returns true, or writes nothing and returns false if this rule does not escape it
+    boolean escapeTo(int codePoint, int surrounderCodePoint, SequenceSink sink);
+
+    // Reads a single escape sequence after the escape prefix and appends what it stands for to the output.
+    // Returns false without appending anything if the sequence does not match this rule, nothing may be appended before the sequence is known to be valid either.
+    boolean unescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) throws UnescapeStringException;
+
+    // Like unescapeTo, but reports an invalid sequence to the reader instead of throwing, see CodePointReader.fail.
+    // Rules that can find invalid sequences override this, so that falling back to other rules does not go through an exception.
+    default boolean tryUnescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) {
+        try {
+            return this.unescapeTo(reader, surrounderCodePoint, output);
+        } catch (UnescapeStringException e) {
+            reader.fail(e.error());
+            return false;
+        }
+    }
+
+    boolean shouldBeEscaped(int codePoint, int surrounderCodePoint);
+
+    // The text every escape sequence unescaped by this rule starts with, or null if this rule never unescapes anything with the given surrounder
+    default @Nullable String prefix(int surrounderCodePoint) {
+        return "";
+    }
+
+    // Allocating versions of the methods above, a null surrounder means there is no surrounder
+    default String @Nullable [] escaped(int codePoint, @Nullable Integer surrounderCodePoint) {
+        List<String> escaped = new ArrayList<>();
+        StringBuilder builder = new StringBuilder();
+        boolean matched = this.escapeTo(codePoint, toPrimitive(surrounderCodePoint), new SequenceSink() {
+            @Override
+            public void startSequence() {
+                builder.setLength(0);
+            }
+
+            @Override
+            public void endSequence() {
+                escaped.add(builder.toString());
+            }
+
+            @Override
+            public void append(char c) {
+                builder.append(c);
+            }
+
+            @Override
+            public void appendCodePoint(int codePoint) {
+                builder.appendCodePoint(codePoint);
+            }
+
+            @Override
+            public void append(CharSequence value, int start, int end) {
+                builder.append(value, start, end);
+            }
+        });
+        return matched ? escaped.toArray(String[]::new) : null;
+    }
+
+    default @Nullable String unescaped(CodePointReader reader, @Nullable Integer surrounderCodePoint) throws UnescapeStringException {
+        StringBuilder builder = new StringBuilder();
+        if (this.unescapeTo(reader, toPrimitive(surrounderCodePoint), CodePointSink.of(builder))) {
+            return builder.toString();
+        }
+        return null;
+    }
+
+    default boolean shouldBeEscaped(int codePoint, @Nullable Integer surrounderCodePoint) {
+        return this.shouldBeEscaped(codePoint, toPrimitive(surrounderCodePoint));
+    }
+
+    default @Nullable String prefix(@Nullable Integer surrounderCodePoint) {
+        return this.prefix(toPrimitive(surrounderCodePoint));
+    }
+
+    static int toPrimitive(@Nullable Integer surrounderCodePoint) {
+        return surrounderCodePoint == null ? NO_SURROUNDER : surrounderCodePoint;
+    }
+
+    // Receives escape sequences, the escaper puts its escape prefix and suffix around every sequence
+    interface SequenceSink extends CodePointSink {
+        void startSequence();
+        void endSequence();
+    }
 }
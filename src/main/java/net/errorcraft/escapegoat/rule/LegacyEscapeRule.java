@@ -0,0 +1,62 @@
+package net.errorcraft.escapegoat.rule;
+
+import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
+import net.errorcraft.escapegoat.UnescapeStringException;
+import org.jetbrains.annotations.Nullable;
+
+// For rules written before escape rules had sink methods, which only implement the allocating methods.
+// Implementing this instead of EscapeRule writes the results of the allocating methods to the sinks.
+public interface LegacyEscapeRule extends EscapeRule {
+    @Override
+    String @Nullable [] escaped(int codePoint, @Nullable Integer surrounderCodePoint);
+
+    @Override
+    @Nullable String unescaped(CodePointReader reader, @Nullable Integer surrounderCodePoint) throws UnescapeStringException;
+
+    @Override
+    boolean shouldBeEscaped(int codePoint, @Nullable Integer surrounderCodePoint);
+
+    @Override
+    default @Nullable String prefix(@Nullable Integer surrounderCodePoint) {
+        return "";
+    }
+
+    @Override
+    default boolean escapeTo(int codePoint, int surrounderCodePoint, SequenceSink sink) {
+        String[] escaped = this.escaped(codePoint, fromPrimitive(surrounderCodePoint));
+        if (escaped == null) {
+            return false;
+        }
+        for (String sequence : escaped) {
+            sink.startSequence();
+            sink.append(sequence, 0, sequence.length());
+            sink.endSequence();
+        }
+        return true;
+    }
+
+    @Override
+    default boolean unescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) throws UnescapeStringException {
+        String unescaped = this.unescaped(reader, fromPrimitive(surrounderCodePoint));
+        if (unescaped == null) {
+            return false;
+        }
+        output.append(unescaped, 0, unescaped.length());
+        return true;
+    }
+
+    @Override
+    default boolean shouldBeEscaped(int codePoint, int surrounderCodePoint) {
+        return this.shouldBeEscaped(codePoint, fromPrimitive(surrounderCodePoint));
+    }
+
+    @Override
+    default @Nullable String prefix(int surrounderCodePoint) {
+        return this.prefix(fromPrimitive(surrounderCodePoint));
+    }
+
+    static @Nullable Integer fromPrimitive(int surrounderCodePoint) {
+        return surrounderCodePoint == NO_SURROUNDER ? null : surrounderCodePoint;
+    }
+}
@@ -3,6 +3,7 @@ package net.errorcraft.escapegoat.rule;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
@@ -17,24 +18,43 @@ public record PreferSurrounderCharacterEscapeRule(Int2ObjectMap<String> codePoin
     }
 
     @Override
-    public String @Nullable [] escaped(int codePoint, Integer surrounderCodePoint) {
-        if (surrounderCodePoint != null && codePoint == surrounderCodePoint && this.codePoints.containsKey(codePoint)) {
-            return new String[] { this.codePoints.get(codePoint) };
+    public boolean escapeTo(int codePoint, int surrounderCodePoint, SequenceSink sink) {
+        if (codePoint == surrounderCodePoint && surrounderCodePoint != NO_SURROUNDER) {
+            String escaped = this.codePoints.get(codePoint);
+            if (escaped != null) {
+                sink.startSequence();
+                sink.append(escaped);
+                sink.endSequence();
+                return true;
+            }
         }
-        return null;
+        return false;
     }
 
     @Override
-    public @Nullable String unescaped(CodePointReader reader, Integer surrounderCodePoint) {
-        if (surrounderCodePoint != null && this.codePoints.containsKey(surrounderCodePoint.intValue()) && reader.trySkipNext(this.codePoints.get(surrounderCodePoint.intValue()))) {
-            return Character.toString(surrounderCodePoint);
+    public boolean unescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) {
+        if (surrounderCodePoint == NO_SURROUNDER) {
+            return false;
         }
-        return null;
+        String escaped = this.codePoints.get(surrounderCodePoint);
+        if (escaped != null && reader.trySkipNext(escaped)) {
+            output.appendCodePoint(surrounderCodePoint);
+            return true;
+        }
+        return false;
     }
 
     @Override
-    public boolean shouldBeEscaped(int codePoint, Integer surrounderCodePoint) {
-        return surrounderCodePoint != null && codePoint == surrounderCodePoint && this.codePoints.containsKey(codePoint);
+    public boolean shouldBeEscaped(int codePoint, int surrounderCodePoint) {
+        return codePoint == surrounderCodePoint && surrounderCodePoint != NO_SURROUNDER && this.codePoints.containsKey(codePoint);
+    }
+
+    @Override
+    public @Nullable String prefix(int surrounderCodePoint) {
+        if (surrounderCodePoint == NO_SURROUNDER) {
+            return null;
+        }
+        return this.codePoints.get(surrounderCodePoint);
     }
 
     public static class Builder {
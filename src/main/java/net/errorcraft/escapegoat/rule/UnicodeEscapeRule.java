@@ -1,10 +1,12 @@
 package net.errorcraft.escapegoat.rule;
 
 import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
+import net.errorcraft.escapegoat.CodePointUtil;
+import net.errorcraft.escapegoat.UnescapeError;
 import net.errorcraft.escapegoat.UnescapeStringException;
-import org.jetbrains.annotations.Nullable;
 
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.function.IntPredicate;
 
 public record UnicodeEscapeRule(String prefix, String suffix, Transformation transformation, Format format, int minLength, int maxLength, int maxCodePoint, IntPredicate isForcedCodePoint) implements EscapeRule {
@@ -27,137 +29,276 @@ public record UnicodeEscapeRule(String prefix, String suffix, Transformation tra
     }
 
     @Override
-    public String @Nullable [] escaped(int codePoint, Integer surrounderCodePoint) {
-        if (this.isForcedCodePoint == null) {
-            return null;
+    public boolean escapeTo(int codePoint, int surrounderCodePoint, SequenceSink sink) {
+        if (this.isForcedCodePoint == null || !this.isForcedCodePoint.test(codePoint)) {
+            return false;
         }
-        if (this.isForcedCodePoint.test(codePoint)) {
-            return this.escapeAndSplit(codePoint);
+        int unitCount = this.transformation.unitCount(codePoint);
+        for (int i = 0; i < unitCount; i++) {
+            sink.startSequence();
+            if (this.prefix != null) {
+                sink.append(this.prefix);
+            }
+            this.format.escapeTo(this.transformation.unit(codePoint, i), this.minLength, sink);
+            if (this.suffix != null) {
+                sink.append(this.suffix);
+            }
+            sink.endSequence();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean unescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) throws UnescapeStringException {
+        if (this.tryUnescapeTo(reader, surrounderCodePoint, output)) {
+            return true;
+        }
+        UnescapeError error = reader.takeError();
+        if (error != null) {
+            throw error.toException();
         }
-        return null;
+        return false;
     }
 
     @Override
-    public @Nullable String unescaped(CodePointReader reader, Integer surrounderCodePoint) throws UnescapeStringException {
+    public boolean tryUnescapeTo(CodePointReader reader, int surrounderCodePoint, CodePointSink output) {
         int start = reader.index();
         if (!reader.trySkipNext(this.prefix)) {
-            return null;
+            return false;
         }
-        int read = this.format.read(reader, this.minLength, this.maxLength);
-        if (read > this.maxCodePoint) {
-            throw new UnescapeStringException("Code point must be at most " + this.maxCodePoint + ": " + read);
+        int read = this.format.tryRead(reader, this.minLength, this.maxLength, this.maxCodePoint);
+        if (read == -1) {
+            return false;
         }
         if (!reader.trySkipNext(this.suffix)) {
             reader.index(start);
-            return null;
+            return false;
         }
-        return this.transformation.unescape(read);
+        this.transformation.unescapeTo(read, output);
+        return true;
     }
 
     @Override
-    public boolean shouldBeEscaped(int codePoint, Integer surrounderCodePoint) {
+    public boolean shouldBeEscaped(int codePoint, int surrounderCodePoint) {
         return this.isForcedCodePoint.test(codePoint);
     }
 
-    private String[] escapeAndSplit(int codePoint) {
-        String[] result = this.transformation.escape(codePoint, this.format);
-        for (int i = 0; i < result.length; i++) {
-            StringBuilder builder = new StringBuilder();
-            if (this.prefix != null) {
-                builder.append(this.prefix);
+    @Override
+    public String prefix(int surrounderCodePoint) {
+        return this.prefix == null ? "" : this.prefix;
+    }
+
+    public enum Transformation {
+        UTF8 {
+            @Override
+            public int unitCount(int codePoint) {
+                if (codePoint < 0x80 || CodePointUtil.isSurrogate(codePoint)) {
+                    return 1;
+                }
+                if (codePoint < 0x800) {
+                    return 2;
+                }
+                if (codePoint < 0x10000) {
+                    return 3;
+                }
+                return 4;
             }
-            builder.append(this.padStringIfNecessary(result[i]));
-            if (this.suffix != null) {
-                builder.append(this.suffix);
+
+            @Override
+            public int unit(int codePoint, int index) {
+                if (CodePointUtil.isSurrogate(codePoint)) {
+                    // Like String.getBytes, which writes '?' for surrogates without their other half
+                    return '?';
+                }
+                int count = this.unitCount(codePoint);
+                if (count == 1) {
+                    return codePoint;
+                }
+                int shift = 6 * (count - 1 - index);
+                if (index == 0) {
+                    return UTF8_LEADING_BITS[count] | codePoint >> shift;
+                }
+                return 0x80 | codePoint >> shift & 0x3F;
             }
-            result[i] = builder.toString();
-        }
-        return result;
-    }
 
-    private String padStringIfNecessary(String value) {
-        int length = value.length();
-        if (length >= this.minLength) {
-            return value;
-        }
-        return "0".repeat(this.minLength - length) + value;
-    }
+            @Override
+            public void unescapeTo(int value, CodePointSink output) {
+                output.append((char) value);
+            }
+        },
+        UTF16 {
+            @Override
+            public int unitCount(int codePoint) {
+                return Character.charCount(codePoint);
+            }
 
-    public enum Transformation {
-        UTF8(codePoint -> {
-            byte[] bytes = Character.toString(codePoint).getBytes(StandardCharsets.UTF_8);
-            int[] result = new int[bytes.length];
-            for (int i = 0; i < bytes.length; i++) {
-                result[i] = bytes[i];
-                if (bytes[i] < 0) {
-                    result[i] += 256;
+            @Override
+            public int unit(int codePoint, int index) {
+                if (Character.isBmpCodePoint(codePoint)) {
+                    return codePoint;
                 }
+                return index == 0 ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+            }
+
+            @Override
+            public void unescapeTo(int value, CodePointSink output) {
+                output.append((char) value);
+            }
+        },
+        UTF32 {
+            @Override
+            public int unitCount(int codePoint) {
+                return 1;
+            }
+
+            @Override
+            public int unit(int codePoint, int index) {
+                return codePoint;
             }
-            return result;
-        }, value -> Character.toString((char) value)),
-        UTF16(codePoint -> {
-            char[] chars = Character.toString(codePoint).toCharArray();
-            int[] result = new int[chars.length];
-            for (int i = 0; i < chars.length; i++) {
-                result[i] = chars[i];
+
+            @Override
+            public void unescapeTo(int value, CodePointSink output) {
+                output.appendCodePoint(value);
             }
-            return result;
-        }, value -> Character.toString((char) value)),
-        UTF32(codePoint -> new int[] { codePoint }, Character::toString);
+        };
+
+        // The most units any transformation splits a code point into
+        public static final int MAX_UNITS = 4;
+        private static final int[] UTF8_LEADING_BITS = {0, 0, 0xC0, 0xE0, 0xF0};
+
+        public abstract int unitCount(int codePoint);
+
+        // The unit at the given index, which must be less than unitCount
+        public abstract int unit(int codePoint, int index);
 
-        private final CodepointEscaper escaper;
-        private final CodepointUnescaper unescaper;
+        // Appends what a single unit stands for to the output
+        public abstract void unescapeTo(int value, CodePointSink output);
 
-        Transformation(CodepointEscaper escaper, CodepointUnescaper unescaper) {
-            this.escaper = escaper;
-            this.unescaper = unescaper;
+        // Writes the units of the code point into the array, which must have room for MAX_UNITS, and returns the amount of units
+        public int escape(int codePoint, int[] units) {
+            int count = this.unitCount(codePoint);
+            for (int i = 0; i < count; i++) {
+                units[i] = this.unit(codePoint, i);
+            }
+            return count;
         }
 
         public String[] escape(int codePoint, Format format) {
-            int[] entries = this.escaper.escape(codePoint);
-            String[] escaped = new String[entries.length];
-            for (int i = 0; i < entries.length; i++) {
-                escaped[i] = format.escape(entries[i]);
+            String[] escaped = new String[this.unitCount(codePoint)];
+            for (int i = 0; i < escaped.length; i++) {
+                escaped[i] = format.escape(this.unit(codePoint, i));
             }
             return escaped;
         }
 
         public String unescape(int value) {
-            return this.unescaper.unescape(value);
-        }
-
-        @FunctionalInterface
-        private interface CodepointEscaper {
-            int[] escape(int codePoint);
-        }
-
-        @FunctionalInterface
-        private interface CodepointUnescaper {
-            String unescape(int value);
+            StringBuilder builder = new StringBuilder(2);
+            this.unescapeTo(value, CodePointSink.of(builder));
+            return builder.toString();
         }
     }
 
     public enum Format {
-        BINARY(2, codePoint -> codePoint == '0' || codePoint == '1'),
-        OCTAL(8, codePoint -> codePoint >= '0' && codePoint <= '7'),
-        DECIMAL(10, codePoint -> codePoint >= '0' && codePoint <= '9'),
-        HEXADECIMAL(16, codePoint -> (codePoint >= '0' && codePoint <= '9') || (codePoint >= 'a' && codePoint <= 'f') || (codePoint >= 'A' && codePoint <= 'F'));
+        BINARY(2),
+        OCTAL(8),
+        DECIMAL(10),
+        HEXADECIMAL(16);
+
+        private static final char[] DIGIT_CHARS = "0123456789abcdef".toCharArray();
+        // Value of every ASCII digit in any of the formats, or -1 for code points that are not a digit in any of them
+        private static final byte[] DIGIT_VALUES = new byte[0x80];
+
+        static {
+            Arrays.fill(DIGIT_VALUES, (byte) -1);
+            for (int i = 0; i < DIGIT_CHARS.length; i++) {
+                DIGIT_VALUES[DIGIT_CHARS[i]] = (byte) i;
+                DIGIT_VALUES[Character.toUpperCase(DIGIT_CHARS[i])] = (byte) i;
+            }
+        }
 
         private final int radix;
-        private final IntPredicate isValidCodePoint;
+        // Every power of the radix up to the first one that does not fit in an int, used to write digits from the most significant one
+        private final long[] powers;
 
-        Format(int radix, IntPredicate isValidCodePoint) {
+        Format(int radix) {
             this.radix = radix;
-            this.isValidCodePoint = isValidCodePoint;
+            int count = 1;
+            for (long power = radix; power <= 0xFFFFFFFFL; power *= radix) {
+                count++;
+            }
+            this.powers = new long[count];
+            long power = 1;
+            for (int i = 0; i < count; i++) {
+                this.powers[i] = power;
+                power *= radix;
+            }
         }
 
         public String escape(int value) {
-            return Integer.toString(value, this.radix);
+            StringBuilder builder = new StringBuilder();
+            this.escapeTo(value, 1, CodePointSink.of(builder));
+            return builder.toString();
+        }
+
+        // Writes the digits of the value to the output, padded with zeros to at least the minimum length
+        public void escapeTo(int value, int minLength, CodePointSink output) {
+            long unsignedValue = Integer.toUnsignedLong(value);
+            int length = 1;
+            while (length < this.powers.length && unsignedValue >= this.powers[length]) {
+                length++;
+            }
+            for (int i = length; i < minLength; i++) {
+                output.append('0');
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                output.append(DIGIT_CHARS[(int) (unsignedValue / this.powers[i] % this.radix)]);
+            }
         }
 
         public int read(CodePointReader reader, int minLength, int maxLength) throws UnescapeStringException {
-            String read = reader.read(this.isValidCodePoint, minLength, maxLength);
-            return Integer.parseInt(read, this.radix);
+            return this.read(reader, minLength, maxLength, Integer.MAX_VALUE);
+        }
+
+        public int read(CodePointReader reader, int minLength, int maxLength, int maxValue) throws UnescapeStringException {
+            int value = this.tryRead(reader, minLength, maxLength, maxValue);
+            if (value == -1) {
+                throw reader.takeError().toException();
+            }
+            return value;
+        }
+
+        // Reads digits straight from the reader, failing as soon as the value goes above the maximum so any amount of digits can be read.
+        // Reports why the digits are invalid to the reader and returns -1 instead of throwing.
+        public int tryRead(CodePointReader reader, int minLength, int maxLength, int maxValue) {
+            int start = reader.index();
+            long value = 0;
+            int length = 0;
+            while (length < maxLength) {
+                int digit = this.digit(reader.peek(length));
+                if (digit == -1) {
+                    break;
+                }
+                value = value * this.radix + digit;
+                if (value > maxValue) {
+                    reader.fail(UnescapeError.codePointTooLarge(start, maxValue, (int) Math.min(value, Integer.MAX_VALUE)));
+                    return -1;
+                }
+                length++;
+            }
+            if (length < minLength) {
+                reader.fail(UnescapeError.sequenceTooShort(start, minLength, length, reader.value(), start, start + length));
+                return -1;
+            }
+            reader.index(start + length);
+            return (int) value;
+        }
+
+        private int digit(int codePoint) {
+            if (codePoint < 0 || codePoint >= DIGIT_VALUES.length) {
+                return -1;
+            }
+            int digit = DIGIT_VALUES[codePoint];
+            return digit < this.radix ? digit : -1;
         }
     }
 
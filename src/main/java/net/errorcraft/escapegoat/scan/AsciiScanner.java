@@ -0,0 +1,7 @@
+package net.errorcraft.escapegoat.scan;
+
+// Skips over the ASCII chars that never need a closer look, so only the chars it stops at have to go through the escape rules
+public interface AsciiScanner {
+    // Returns the index of the first char from index up to end that is one of the stop chars or not ASCII, or end if there is none
+    int scan(char[] chars, int index, int end);
+}
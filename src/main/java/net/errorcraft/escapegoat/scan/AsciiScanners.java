@@ -0,0 +1,27 @@
+package net.errorcraft.escapegoat.scan;
+
+import org.jetbrains.annotations.Nullable;
+
+public class AsciiScanners {
+    public static final int ASCII_SIZE = 0x80;
+    // The Vector API is still incubating, so it is only there if the JVM was started with --add-modules jdk.incubator.vector
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private AsciiScanners() {}
+
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    // Returns null if there is no scanner that is faster than checking every char on its own
+    public static @Nullable AsciiScanner of(boolean[] stops) {
+        if (!VECTOR_AVAILABLE) {
+            return null;
+        }
+        try {
+            return VectorAsciiScanner.of(stops);
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.errorcraft.escapegoat.scan;
+
+public class ScalarAsciiScanner implements AsciiScanner {
+    private final boolean[] stops;
+
+    // The stops are indexed by ASCII code point
+    public ScalarAsciiScanner(boolean[] stops) {
+        this.stops = stops.clone();
+    }
+
+    @Override
+    public int scan(char[] chars, int index, int end) {
+        for (int i = index; i < end; i++) {
+            char c = chars[i];
+            if (c >= AsciiScanners.ASCII_SIZE || this.stops[c]) {
+                return i;
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,66 @@
+package net.errorcraft.escapegoat.scan;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+// Compares a whole vector of chars at once. Only loaded through AsciiScanners, which checks that the incubating module is available first.
+public class VectorAsciiScanner implements AsciiScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    // Every stop char costs an extra comparison per vector, beyond this the scalar scanner is just as fast
+    private static final int MAX_EXTRA_STOPS = 8;
+
+    private final ScalarAsciiScanner tail;
+    private final short lowStopBound;
+    private final short[] extraStops;
+
+    private VectorAsciiScanner(boolean[] stops, short lowStopBound, short[] extraStops) {
+        this.tail = new ScalarAsciiScanner(stops);
+        this.lowStopBound = lowStopBound;
+        this.extraStops = extraStops;
+    }
+
+    // Returns null if there are too many stop chars that are not part of the control chars at the start of ASCII
+    public static @Nullable VectorAsciiScanner of(boolean[] stops) {
+        int lowStopBound = 0;
+        while (lowStopBound < AsciiScanners.ASCII_SIZE && stops[lowStopBound]) {
+            lowStopBound++;
+        }
+        short[] extraStops = new short[MAX_EXTRA_STOPS];
+        int extraStopCount = 0;
+        for (int c = lowStopBound; c < AsciiScanners.ASCII_SIZE; c++) {
+            if (!stops[c]) {
+                continue;
+            }
+            if (extraStopCount == MAX_EXTRA_STOPS) {
+                return null;
+            }
+            extraStops[extraStopCount++] = (short) c;
+        }
+        return new VectorAsciiScanner(stops, (short) lowStopBound, Arrays.copyOf(extraStops, extraStopCount));
+    }
+
+    @Override
+    public int scan(char[] chars, int index, int end) {
+        int length = SPECIES.length();
+        int bound = index + SPECIES.loopBound(end - index);
+        // A char is in range when it is not below the low stop bound and still ASCII, which is a single unsigned comparison after shifting the range down
+        short rangeLength = (short) (AsciiScanners.ASCII_SIZE - this.lowStopBound);
+        int i = index;
+        for (; i < bound; i += length) {
+            ShortVector vector = ShortVector.fromCharArray(SPECIES, chars, i);
+            VectorMask<Short> stops = vector.sub(this.lowStopBound).compare(VectorOperators.UNSIGNED_GE, rangeLength);
+            for (short extraStop : this.extraStops) {
+                stops = stops.or(vector.compare(VectorOperators.EQ, extraStop));
+            }
+            if (stops.anyTrue()) {
+                return i + stops.firstTrue();
+            }
+        }
+        return this.tail.scan(chars, i, end);
+    }
+}
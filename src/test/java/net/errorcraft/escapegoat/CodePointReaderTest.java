@@ -50,4 +50,27 @@ class CodePointReaderTest {
         Assertions.assertEquals("aa", result, "Reader must return a string with the maximum amount of code points");
         Assertions.assertEquals(2, reader.index(), "Reader must advance the specified maximum amount of code points");
     }
+
+    @Test
+    void readWithRegionStopsAtEndOfRegion() {
+        CodePointReader reader = new CodePointReader("bbaaaa", 2, 4);
+        String result = reader.read(codePoint -> codePoint == 'a', 0, Integer.MAX_VALUE);
+        Assertions.assertEquals("aa", result, "Reader must not read past the end of the region");
+        Assertions.assertEquals(4, reader.index(), "Reader must advance to the end of the region");
+    }
+
+    @Test
+    void readWithSupplementaryCodePointsCountsCodePoints() {
+        CodePointReader reader = new CodePointReader("😊😊😊");
+        String result = reader.read(codePoint -> codePoint == 0x1F60A, 0, 2);
+        Assertions.assertEquals("😊😊", result, "Reader must count supplementary code points as one code point");
+        Assertions.assertEquals(4, reader.index(), "Reader must advance the amount of chars read");
+    }
+
+    @Test
+    void peekWithIndexAtEndReturnsNegativeOne() {
+        CodePointReader reader = new CodePointReader("abc", 1, 2);
+        Assertions.assertEquals('b', reader.peek(0), "Reader must return the code point at the current index");
+        Assertions.assertEquals(-1, reader.peek(1), "Reader must return -1 past the end of the region");
+    }
 }
@@ -0,0 +1,71 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EscapeCacheTest {
+    @Test
+    void escapeReturnsSameValueAsEscaper() {
+        EscapeCache cache = EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER).build();
+        Assertions.assertEquals(StringEscaperTest.TEST_STRING_ESCAPER.escape("x'y"), cache.escape("x'y"), "Cache should escape like its escaper");
+        Assertions.assertEquals(StringEscaperTest.TEST_STRING_ESCAPER.escape("x'y"), cache.escape("x'y"), "Cache should return the same value when it is cached");
+    }
+
+    @Test
+    void escapeCountsHitsAndMisses() {
+        EscapeCache cache = EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER).build();
+        cache.escape("x");
+        cache.escape("x");
+        cache.escape("y");
+        Assertions.assertEquals(1, cache.hits(), "Cache should count values that were already cached as hits");
+        Assertions.assertEquals(2, cache.misses(), "Cache should count values that were not cached yet as misses");
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    void escapeOutsideOfLengthBoundsSkipsCache() {
+        EscapeCache cache = EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER)
+            .minLength(2)
+            .maxLength(3)
+            .build();
+        cache.escape("x");
+        cache.escape("xxxx");
+        Assertions.assertEquals(0, cache.size(), "Cache should not remember values that are too short or too long");
+        Assertions.assertEquals(0, cache.misses(), "Cache should not count values that skip it");
+    }
+
+    @Test
+    void escapeOverMaxSizeEvictsLeastRecentlyUsedValue() {
+        EscapeCache cache = EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER)
+            .stripes(1)
+            .maxSize(2)
+            .build();
+        cache.escape("x");
+        cache.escape("y");
+        cache.escape("x");
+        cache.escape("z");
+        Assertions.assertEquals(1, cache.evictions(), "Cache should evict a value once it is full");
+        cache.escape("x");
+        Assertions.assertEquals(2, cache.hits(), "Cache should keep the recently used value");
+        cache.escape("y");
+        Assertions.assertEquals(4, cache.misses(), "Cache should evict the least recently used value");
+    }
+
+    @Test
+    void escapeOverMaxWeightEvictsValues() {
+        EscapeCache cache = EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER)
+            .stripes(1)
+            .maxWeight(16)
+            .build();
+        cache.escape("zzzz");
+        cache.escape("yyyy");
+        Assertions.assertEquals(1, cache.size(), "Cache should evict values once they weigh too much together");
+        Assertions.assertEquals(10, cache.weight(), "Cache should weigh a value as the chars of the value and its escaped value");
+    }
+
+    @Test
+    void builderWithInvalidBoundsThrowsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER).maxSize(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> EscapeCache.builder(StringEscaperTest.TEST_STRING_ESCAPER).stripes(0));
+    }
+}
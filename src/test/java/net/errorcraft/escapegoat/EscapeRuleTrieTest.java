@@ -0,0 +1,116 @@
+package net.errorcraft.escapegoat;
+
+import net.errorcraft.escapegoat.rule.CharacterEscapeRule;
+import net.errorcraft.escapegoat.rule.EscapeRule;
+import net.errorcraft.escapegoat.rule.PreferSurrounderCharacterEscapeRule;
+import net.errorcraft.escapegoat.rule.UnicodeEscapeRule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EscapeRuleTrieTest {
+    private static final int SURROUNDER_CODE_POINT = '\'';
+    private static final EscapeRule[] TEST_RULES = {
+        PreferSurrounderCharacterEscapeRule.builder()
+            .add(SURROUNDER_CODE_POINT, "'")
+            .build(),
+        CharacterEscapeRule.ofAlwaysEscape('\n', "n"),
+        UnicodeEscapeRule.builder(Character::isISOControl)
+            .prefix("u")
+            .transformation(UnicodeEscapeRule.Transformation.UTF16)
+            .format(UnicodeEscapeRule.Format.HEXADECIMAL)
+            .length(4)
+            .build(),
+        UnicodeEscapeRule.builder(codePoint -> false)
+            .prefix("u{")
+            .suffix("}")
+            .transformation(UnicodeEscapeRule.Transformation.UTF32)
+            .format(UnicodeEscapeRule.Format.HEXADECIMAL)
+            .maxLength(6)
+            .build(),
+        UnicodeEscapeRule.builder(codePoint -> false)
+            .transformation(UnicodeEscapeRule.Transformation.UTF32)
+            .format(UnicodeEscapeRule.Format.DECIMAL)
+            .maxLength(3)
+            .build()
+    };
+    private static final EscapeRuleTrie TEST_TRIE = new EscapeRuleTrie(TEST_RULES, null);
+    private static final EscapeRuleTrie TEST_TRIE_WITH_SURROUNDER = new EscapeRuleTrie(TEST_RULES, SURROUNDER_CODE_POINT);
+
+    @Test
+    void unescapeWithSimplePrefixUsesMatchingRule() {
+        CodePointReader reader = new CodePointReader("nabc");
+        Assertions.assertEquals("\n", unescape(TEST_TRIE, reader), "Trie should unescape using the rule with the matching prefix");
+        Assertions.assertEquals(1, reader.index(), "Trie should only advance past the unescaped sequence");
+    }
+
+    @Test
+    void unescapeWithLongerPrefixPrefersLongestMatch() {
+        CodePointReader reader = new CodePointReader("u{1F60A}");
+        Assertions.assertEquals("😊", unescape(TEST_TRIE, reader), "Trie should unescape using the rule with the longest matching prefix");
+        Assertions.assertEquals(8, reader.index(), "Trie should advance past the unescaped sequence");
+    }
+
+    @Test
+    void unescapeWithShorterPrefixFallsBackToShorterMatch() {
+        CodePointReader reader = new CodePointReader("u0041");
+        Assertions.assertEquals("A", unescape(TEST_TRIE, reader), "Trie should fall back to rules with a shorter prefix");
+    }
+
+    @Test
+    void unescapeWithoutPrefixFallsBackToRulesWithoutPrefix() {
+        CodePointReader reader = new CodePointReader("65");
+        Assertions.assertEquals("A", unescape(TEST_TRIE, reader), "Trie should fall back to rules without a prefix");
+    }
+
+    @Test
+    void unescapeWithSurrounderOnlyMatchesSurrounderInThatTrie() {
+        Assertions.assertEquals("'", unescape(TEST_TRIE_WITH_SURROUNDER, new CodePointReader("'")), "Trie with surrounder should unescape the surrounder");
+        Assertions.assertThrows(UnescapeStringException.class, () -> unescape(TEST_TRIE, new CodePointReader("'")), "Trie without surrounder should not unescape the surrounder");
+    }
+
+    @Test
+    void unescapeWithInvalidSequenceThrowsExceptionAndResetsReader() {
+        CodePointReader reader = new CodePointReader("u{110000}");
+        Assertions.assertThrows(UnescapeStringException.class, () -> unescape(TEST_TRIE, reader), "Trie should throw an exception if every matching rule failed");
+        Assertions.assertEquals(0, reader.index(), "Trie should not advance the reader for an invalid sequence");
+    }
+
+    @Test
+    void tryUnescapeWithInvalidSequenceLeavesErrorInReader() {
+        CodePointReader reader = new CodePointReader("u{110000}");
+        StringBuilder builder = new StringBuilder();
+        Assertions.assertFalse(TEST_TRIE.tryUnescapeTo(reader, CodePointSink.of(builder)), "Trie should not unescape an invalid sequence");
+        UnescapeError error = reader.takeError();
+        Assertions.assertNotNull(error, "Trie should leave the error of the failed rule in the reader");
+        Assertions.assertEquals(UnescapeError.Kind.CODE_POINT_TOO_LARGE, error.kind());
+        Assertions.assertEquals(0, reader.index(), "Trie should not advance the reader for an invalid sequence");
+        Assertions.assertEquals("", builder.toString(), "Trie should not write anything for an invalid sequence");
+    }
+
+    @Test
+    void unescapeWithFailedLongerPrefixFallsBackToShorterMatch() {
+        EscapeRule[] rules = {
+            CharacterEscapeRule.ofAlwaysEscape('!', "u"),
+            UnicodeEscapeRule.builder(codePoint -> false)
+                .prefix("u{")
+                .suffix("}")
+                .transformation(UnicodeEscapeRule.Transformation.UTF32)
+                .format(UnicodeEscapeRule.Format.HEXADECIMAL)
+                .maxLength(6)
+                .build()
+        };
+        EscapeRuleTrie trie = new EscapeRuleTrie(rules, null);
+        CodePointReader reader = new CodePointReader("u{110000}");
+        Assertions.assertEquals("!", unescape(trie, reader), "Trie should fall back to a shorter prefix without output of the failed rule");
+        Assertions.assertEquals(1, reader.index());
+        Assertions.assertNull(reader.takeError(), "Trie should not keep the error of a failed rule once another rule matched");
+    }
+
+    private static String unescape(EscapeRuleTrie trie, CodePointReader reader) {
+        StringBuilder builder = new StringBuilder();
+        if (trie.unescapeTo(reader, CodePointSink.of(builder))) {
+            return builder.toString();
+        }
+        return null;
+    }
+}
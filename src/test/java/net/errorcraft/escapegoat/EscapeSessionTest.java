@@ -0,0 +1,64 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EscapeSessionTest {
+    @Test
+    void escapeReturnsSameValueAsEscaper() {
+        EscapeSession session = StringEscaperTest.TEST_STRING_ESCAPER.session();
+        for (String value : new String[] { "x'y", "zz", "a\"b'c", "" }) {
+            Assertions.assertEquals(StringEscaperTest.TEST_STRING_ESCAPER.escape(value), session.escape(value), "Session should escape like its escaper");
+        }
+    }
+
+    @Test
+    void escapeReusedAfterLongerValueReturnsSameValueAsEscaper() {
+        EscapeSession session = StringEscapers.SNBT.session();
+        String longValue = "x'\"".repeat(100);
+        Assertions.assertEquals(StringEscapers.SNBT.escape(longValue), session.escape(longValue));
+        Assertions.assertEquals(StringEscapers.SNBT.escape("y'"), session.escape("y'"), "Session should not keep chars of an earlier value");
+    }
+
+    @Test
+    void unescapeReturnsSameValueAsEscaper() throws UnescapeStringException {
+        EscapeSession session = StringEscaperTest.TEST_STRING_ESCAPER.session();
+        Assertions.assertEquals("a ' x y z", session.unescape("'aab a'b axb y z'"));
+        Assertions.assertEquals("zz", session.unescape("'zz'"), "Session should not keep chars of an earlier value");
+    }
+
+    @Test
+    void unescapeLongValueReturnsSameValueAsEscaper() throws UnescapeStringException {
+        EscapeSession session = StringEscapers.SNBT.session();
+        String value = "'" + "plain text \\n\\u00e9 ".repeat(20) + "'";
+        Assertions.assertEquals(StringEscapers.SNBT.unescape(value), session.unescape(value), "Session should unescape long values like its escaper");
+    }
+
+    @Test
+    void tryUnescapeAfterErrorReturnsValue() {
+        EscapeSession session = StringEscaperTest.TEST_STRING_ESCAPER.session();
+        UnescapeResult failed = session.tryUnescape("'zazb'");
+        Assertions.assertEquals(UnescapeError.Kind.INVALID_ESCAPE_SEQUENCE, failed.error().kind());
+        Assertions.assertEquals(2, failed.error().position());
+        UnescapeResult result = session.tryUnescape("'zz'");
+        Assertions.assertTrue(result.isSuccess(), "Session should not keep the error of an earlier value");
+        Assertions.assertEquals("zz", result.value());
+    }
+
+    @Test
+    void validateReturnsSameValueAsEscaper() throws UnescapeStringException {
+        EscapeSession session = StringEscapers.SNBT.session();
+        UnescapeContext context = new UnescapeContext(false, UnescapeContext.DEFAULT.callback());
+        String value = "'x\\n\\u00e9\\'y' z";
+        Assertions.assertEquals(StringEscapers.SNBT.validate(value, context), session.validate(value, context));
+        Assertions.assertNotNull(session.tryValidate("'x\\", 0, 3, context), "Session should find errors like its escaper");
+        Assertions.assertEquals(3, session.validate("'x'", context), "Session should not keep the state of an earlier value");
+    }
+
+    @Test
+    void escapeLargeValueDropsBuffers() {
+        EscapeSession session = StringEscapers.SNBT.session();
+        session.escape("x".repeat(EscapeSession.MAX_RETAINED_CAPACITY * 2));
+        Assertions.assertTrue(session.retainedCapacity() <= EscapeSession.MAX_RETAINED_CAPACITY, "Session should not keep buffers grown for a large value");
+    }
+}
@@ -0,0 +1,77 @@
+package net.errorcraft.escapegoat;
+
+import net.errorcraft.escapegoat.rule.CharacterEscapeRule;
+import net.errorcraft.escapegoat.rule.EscapeRule;
+import net.errorcraft.escapegoat.rule.PreferSurrounderCharacterEscapeRule;
+import net.errorcraft.escapegoat.rule.UnicodeEscapeRule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EscapeTableTest {
+    private static final int SURROUNDER_CODE_POINT = '\'';
+    // Character: 😊
+    private static final int SMP_ESCAPE_CODE_POINT = 0x1F60A;
+    private static final EscapeRule[] TEST_RULES = {
+        PreferSurrounderCharacterEscapeRule.builder()
+            .add(SURROUNDER_CODE_POINT, "'")
+            .build(),
+        CharacterEscapeRule.ofAlwaysEscape('x', "x"),
+        CharacterEscapeRule.ofOptionalEscape('y', "y"),
+        UnicodeEscapeRule.builder(codePoint -> codePoint == 'é' || codePoint == SMP_ESCAPE_CODE_POINT)
+            .prefix("u")
+            .transformation(UnicodeEscapeRule.Transformation.UTF16)
+            .format(UnicodeEscapeRule.Format.HEXADECIMAL)
+            .length(4)
+            .build()
+    };
+    private static final EscapeTable TEST_TABLE = new EscapeTable('\\', null, TEST_RULES, null);
+    private static final EscapeTable TEST_TABLE_WITH_SURROUNDER = new EscapeTable('\\', null, TEST_RULES, SURROUNDER_CODE_POINT);
+    private static final EscapeTable TEST_TABLE_WITH_SUFFIX = new EscapeTable('\\', (int) ';', TEST_RULES, null);
+
+    @Test
+    void escapedWithAsciiCodePointMatchingRuleReturnsEscapedValue() {
+        Assertions.assertEquals("\\x", TEST_TABLE.escaped('x'), "Table should return the prefix and escaped value joined");
+    }
+
+    @Test
+    void escapedWithCodePointNotMatchingRuleReturnsNull() {
+        Assertions.assertNull(TEST_TABLE.escaped('y'), "Table should not escape a code point that is optionally escaped");
+        Assertions.assertNull(TEST_TABLE.escaped('z'), "Table should not escape a code point without a rule");
+        Assertions.assertNull(TEST_TABLE.escaped(0x10FFFF), "Table should not escape a code point without a rule");
+    }
+
+    @Test
+    void escapedWithNonAsciiCodePointMatchingRuleReturnsEscapedValue() {
+        Assertions.assertEquals("\\u00e9", TEST_TABLE.escaped('é'), "Table should return the escaped value for code points outside of the ASCII range");
+        Assertions.assertEquals("\\ud83d\\ude0a", TEST_TABLE.escaped(SMP_ESCAPE_CODE_POINT), "Table should return every escape sequence for code points outside of the BMP");
+    }
+
+    @Test
+    void escapedWithSuffixAppendsSuffixToEverySequence() {
+        Assertions.assertEquals("\\ud83d;\\ude0a;", TEST_TABLE_WITH_SUFFIX.escaped(SMP_ESCAPE_CODE_POINT), "Table should append the suffix to every escape sequence");
+    }
+
+    @Test
+    void escapedWithSurrounderOnlyEscapesSurrounderInThatTable() {
+        Assertions.assertNull(TEST_TABLE.escaped(SURROUNDER_CODE_POINT), "Table without surrounder should not escape the surrounder");
+        Assertions.assertEquals("\\'", TEST_TABLE_WITH_SURROUNDER.escaped(SURROUNDER_CODE_POINT), "Table with surrounder should escape the surrounder");
+    }
+
+    @Test
+    void shouldBeEscapedMatchesRules() {
+        Assertions.assertTrue(TEST_TABLE.shouldBeEscaped('x'), "Table should force escaping code points that are always escaped");
+        Assertions.assertTrue(TEST_TABLE.shouldBeEscaped(SMP_ESCAPE_CODE_POINT), "Table should force escaping code points outside of the BMP");
+        Assertions.assertFalse(TEST_TABLE.shouldBeEscaped('y'), "Table should not force escaping code points that are optionally escaped");
+        Assertions.assertFalse(TEST_TABLE.shouldBeEscaped(SMP_ESCAPE_CODE_POINT + 1), "Table should not force escaping code points without a rule");
+    }
+
+    @Test
+    void isUnescapeStopMatchesPrefixSurrounderAndForcedCodePoints() {
+        Assertions.assertTrue(TEST_TABLE_WITH_SURROUNDER.isUnescapeStop('\\'), "Table should stop at the escape prefix");
+        Assertions.assertTrue(TEST_TABLE_WITH_SURROUNDER.isUnescapeStop(SURROUNDER_CODE_POINT), "Table should stop at the surrounder");
+        Assertions.assertTrue(TEST_TABLE_WITH_SURROUNDER.isUnescapeStop('x'), "Table should stop at code points that are always escaped");
+        Assertions.assertTrue(TEST_TABLE_WITH_SURROUNDER.isUnescapeStop(SMP_ESCAPE_CODE_POINT), "Table should stop at code points outside of the ASCII range that are always escaped");
+        Assertions.assertFalse(TEST_TABLE_WITH_SURROUNDER.isUnescapeStop('y'), "Table should not stop at code points that are optionally escaped");
+        Assertions.assertFalse(TEST_TABLE.isUnescapeStop(SURROUNDER_CODE_POINT), "Table without a surrounder should not stop at code points that are not escaped");
+    }
+}
@@ -0,0 +1,54 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+class EscapingWriterTest {
+    @Test
+    void writeEscapesValueAndAddsSurroundersOnClose() throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new EscapingWriter(result, StringEscaperTest.TEST_STRING_ESCAPER)) {
+            writer.write("x'");
+            writer.write("z");
+        }
+        Assertions.assertEquals("'axba'bz'", result.toString(), "Writer should escape everything written to it between surrounders");
+    }
+
+    @Test
+    void closeWithoutWritingWritesEmptyString() throws IOException {
+        StringWriter result = new StringWriter();
+        new EscapingWriter(result, StringEscaperTest.TEST_STRING_ESCAPER).close();
+        Assertions.assertEquals("''", result.toString(), "Writer should write an empty string when nothing was written");
+    }
+
+    @Test
+    void writeWithSurrogatePairSplitAcrossWritesKeepsCodePoint() throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new EscapingWriter(result, StringEscapers.JSON)) {
+            writer.write('\uD83D');
+            writer.write('\uDE0A');
+        }
+        Assertions.assertEquals(StringEscapers.JSON.escape("😊"), result.toString(), "Writer should escape a surrogate pair split across writes as a single code point");
+    }
+
+    @Test
+    void writeWithLongValueMatchesEscape() throws IOException {
+        String value = "x'abz".repeat(5000);
+        StringWriter result = new StringWriter();
+        try (Writer writer = new EscapingWriter(result, StringEscaperTest.TEST_STRING_ESCAPER)) {
+            writer.write(value);
+        }
+        Assertions.assertEquals(StringEscaperTest.TEST_STRING_ESCAPER.escape(value), result.toString(), "Writer should escape values longer than its buffer the same way as escape");
+    }
+
+    @Test
+    void writeAfterCloseThrowsException() throws IOException {
+        Writer writer = new EscapingWriter(new StringWriter(), StringEscaperTest.TEST_STRING_ESCAPER);
+        writer.close();
+        Assertions.assertThrows(IOException.class, () -> writer.write("z"), "Writer should not accept values after being closed");
+    }
+}
@@ -0,0 +1,73 @@
+package net.errorcraft.escapegoat;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.errorcraft.escapegoat.rule.CharacterEscapeRule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class FlightRecorderEventTest {
+    private static final StringEscaper TEST_STRING_ESCAPER = StringEscaper.builder('a', "a")
+        .name("test")
+        .suffix('b')
+        .surrounder('\'', "'")
+        .rule(CharacterEscapeRule.ofAlwaysEscape('x', "x"))
+        .build();
+
+    @Test
+    void escapeRecordsEvent() throws IOException {
+        List<RecordedEvent> events = record(() -> TEST_STRING_ESCAPER.escape("zxz'"));
+        RecordedEvent event = find(events, "escapegoat.Escape");
+        Assertions.assertEquals("test", event.getString("escaper"), "Event should contain the name of the escaper");
+        Assertions.assertEquals(4, event.getInt("inputLength"));
+        Assertions.assertEquals(TEST_STRING_ESCAPER.escape("zxz'").length(), event.getInt("outputLength"));
+        Assertions.assertEquals(2, event.getInt("escapedCodePoints"), "Event should count the escaped code points");
+    }
+
+    @Test
+    void unescapeRecordsEvent() throws IOException {
+        List<RecordedEvent> events = record(() -> TEST_STRING_ESCAPER.unescape("'zaxbz'"));
+        RecordedEvent event = find(events, "escapegoat.Unescape");
+        Assertions.assertEquals(7, event.getInt("inputLength"));
+        Assertions.assertEquals(3, event.getInt("outputLength"));
+        Assertions.assertEquals(1, event.getInt("escapeSequences"), "Event should count the escape sequences");
+    }
+
+    @Test
+    void failedUnescapeRecordsEvent() throws IOException {
+        List<RecordedEvent> events = record(() -> TEST_STRING_ESCAPER.tryUnescape("'zzx'"));
+        RecordedEvent event = find(events, "escapegoat.UnescapeFailed");
+        Assertions.assertEquals(3, event.getInt("position"), "Event should contain the position of the error");
+        Assertions.assertEquals(UnescapeError.Kind.UNESCAPED_CHARACTER.name(), event.getString("kind"));
+        Assertions.assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("escapegoat.Unescape")), "Failed unescapes should not be recorded as unescapes");
+    }
+
+    private static List<RecordedEvent> record(Runnable runnable) throws IOException {
+        Path file = Files.createTempFile("escapegoat", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EscapeEvent.class).withoutThreshold();
+            recording.enable(UnescapeEvent.class).withoutThreshold();
+            recording.enable(UnescapeFailedEvent.class).withoutThreshold();
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No " + name + " event was recorded"));
+    }
+}
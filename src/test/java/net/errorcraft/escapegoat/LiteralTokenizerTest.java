@@ -0,0 +1,149 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+class LiteralTokenizerTest {
+    @Test
+    void updateFindsEveryLiteral() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        tokenizer.update("{a:'x\\ny',b:\"z\"}");
+        List<StringLiteral> literals = tokenizer.literals();
+        Assertions.assertEquals(2, literals.size());
+        Assertions.assertEquals("x\ny", literals.get(0).value());
+        Assertions.assertEquals(3, literals.get(0).start());
+        Assertions.assertEquals(9, literals.get(0).end(), "Literal should end after its closing surrounder");
+        Assertions.assertEquals("z", literals.get(1).value());
+        Assertions.assertEquals(12, literals.get(1).start());
+    }
+
+    @Test
+    void updateReportsEscapeSequences() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscaperTest.TEST_STRING_ESCAPER);
+        tokenizer.update("z 'zaxbzza'b'");
+        StringLiteral literal = tokenizer.literals().get(0);
+        Assertions.assertEquals(2, literal.sequenceCount());
+        Assertions.assertEquals(4, literal.sequenceStart(0), "Escape sequence should start at the escape prefix");
+        Assertions.assertEquals(7, literal.sequenceEnd(0), "Escape sequence should end after the escape suffix");
+        Assertions.assertEquals(9, literal.sequenceStart(1));
+        Assertions.assertEquals(12, literal.sequenceEnd(1));
+    }
+
+    @Test
+    void updateInsideLiteralOnlyUnescapesThatLiteral() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        tokenizer.update("{a:'one',b:'two',c:'three'}");
+        tokenizer.update("{a:'one',b:'twoo',c:'three'}");
+        Assertions.assertEquals(1, tokenizer.unescapedLiterals(), "Tokenizer should only unescape the edited literal");
+        Assertions.assertEquals("twoo", tokenizer.literals().get(1).value());
+        Assertions.assertEquals("three", tokenizer.literals().get(2).value());
+        Assertions.assertEquals(20, tokenizer.literals().get(2).start(), "Tokenizer should move the literals after the edit");
+    }
+
+    @Test
+    void updateWithAddedSurrounderUnescapesFollowingLiterals() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        tokenizer.update("{a:'one',b:'two'}");
+        tokenizer.update("{a:'o'ne',b:'two'}");
+        Assertions.assertEquals(3, tokenizer.literals().size(), "Tokenizer should find the literals again after an added surrounder");
+        Assertions.assertEquals("o", tokenizer.literals().get(0).value());
+        Assertions.assertEquals(",b:", tokenizer.literals().get(1).value(), "Tokenizer should pair the surrounders after the edit differently");
+        Assertions.assertFalse(tokenizer.literals().get(2).isValid(), "Tokenizer should find the unclosed literal at the end");
+    }
+
+    @Test
+    void updateAfterUnclosedLiteralUnescapesIt() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        tokenizer.update("{a:'on");
+        Assertions.assertEquals(UnescapeError.Kind.UNCLOSED_STRING, tokenizer.literals().get(0).error().kind());
+        tokenizer.update("{a:'one'");
+        Assertions.assertEquals("one", tokenizer.literals().get(0).value(), "Tokenizer should unescape a literal that was cut off by the end of the text again");
+    }
+
+    @Test
+    void literalAtWithOtherTextReturnsNull() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        String text = "{a:'one'}";
+        tokenizer.update(text);
+        Assertions.assertEquals("one", tokenizer.literalAt(text, 3).value());
+        Assertions.assertNull(tokenizer.literalAt(text, 4), "Tokenizer should only find literals by their start");
+        Assertions.assertNull(tokenizer.literalAt(new String(text), 3), "Tokenizer should only find literals of the same text");
+    }
+
+    @Test
+    void isCommandWithCommandBlockInputReturnsTrue() {
+        Assertions.assertTrue(LiteralTokenizer.isCommand("give @p written_book[written_book_content={pages:['x']}]", true), "Input without a slash should be a command if the slash is optional");
+        Assertions.assertTrue(LiteralTokenizer.isCommand("/give @p stone", false));
+        Assertions.assertFalse(LiteralTokenizer.isCommand("give me stone", false), "Chat messages should not be commands");
+    }
+
+    @Test
+    void updateWithCommandBlockInputOnlyUnescapesEditedLiteral() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        String pages = "'" + "page\\n".repeat(200) + "'";
+        tokenizer.update("give @p written_book[written_book_content={title:'a',pages:[" + pages + "]}]");
+        tokenizer.update("give @p written_book[written_book_content={title:'ab',pages:[" + pages + "]}]");
+        Assertions.assertEquals(1, tokenizer.unescapedLiterals(), "Tokenizer should not unescape the pages again when editing the title");
+        Assertions.assertEquals("page\n".repeat(200), tokenizer.literals().get(1).value());
+    }
+
+    @Test
+    void finishParsingForgetsTokenizer() {
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        LiteralTokenizer other = new LiteralTokenizer(StringEscapers.SNBT);
+        Assertions.assertNull(LiteralTokenizer.parsing(), "Nothing should be parsed before parsing is started");
+        tokenizer.startParsing();
+        Assertions.assertSame(tokenizer, LiteralTokenizer.parsing());
+        other.finishParsing();
+        Assertions.assertSame(tokenizer, LiteralTokenizer.parsing(), "Finishing another tokenizer should not forget the one being parsed");
+        tokenizer.finishParsing();
+        Assertions.assertNull(LiteralTokenizer.parsing(), "Tokenizer should not be kept once parsing is finished");
+    }
+
+    @Test
+    void updateWithRandomEditsMatchesNewTokenizer() {
+        Random random = new Random(1);
+        String alphabet = "ab'\"\\nu{}0: ";
+        LiteralTokenizer tokenizer = new LiteralTokenizer(StringEscapers.SNBT);
+        StringBuilder text = new StringBuilder("{a:'one',b:\"t\\\"wo\",c:'\\u{1F600}'}");
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(text.length() + 1);
+            int end = Math.min(text.length(), start + random.nextInt(3));
+            StringBuilder inserted = new StringBuilder();
+            for (int j = random.nextInt(3); j > 0; j--) {
+                inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            text.replace(start, end, inserted.toString());
+            String value = text.toString();
+            tokenizer.update(value);
+            LiteralTokenizer expected = new LiteralTokenizer(StringEscapers.SNBT);
+            expected.update(value);
+            assertSameLiterals(expected.literals(), tokenizer.literals(), value);
+        }
+    }
+
+    private static void assertSameLiterals(List<StringLiteral> expected, List<StringLiteral> actual, String text) {
+        Assertions.assertEquals(expected.size(), actual.size(), "Tokenizer should find the same literals in " + text);
+        for (int i = 0; i < expected.size(); i++) {
+            StringLiteral expectedLiteral = expected.get(i);
+            StringLiteral actualLiteral = actual.get(i);
+            Assertions.assertEquals(expectedLiteral.start(), actualLiteral.start(), "Literal should start at the same index in " + text);
+            Assertions.assertEquals(expectedLiteral.end(), actualLiteral.end(), "Literal should end at the same index in " + text);
+            Assertions.assertEquals(expectedLiteral.value(), actualLiteral.value(), "Literal should have the same value in " + text);
+            Assertions.assertEquals(expectedLiteral.isValid(), actualLiteral.isValid());
+            if (!expectedLiteral.isValid()) {
+                Assertions.assertEquals(expectedLiteral.error().kind(), actualLiteral.error().kind(), "Literal should have the same error in " + text);
+                Assertions.assertEquals(expectedLiteral.error().position(), actualLiteral.error().position());
+                Assertions.assertEquals(expectedLiteral.error().message(), actualLiteral.error().message());
+            }
+            Assertions.assertEquals(expectedLiteral.sequenceCount(), actualLiteral.sequenceCount());
+            for (int j = 0; j < expectedLiteral.sequenceCount(); j++) {
+                Assertions.assertEquals(expectedLiteral.sequenceStart(j), actualLiteral.sequenceStart(j), "Escape sequence should start at the same index in " + text);
+                Assertions.assertEquals(expectedLiteral.sequenceEnd(j), actualLiteral.sequenceEnd(j));
+            }
+        }
+    }
+}
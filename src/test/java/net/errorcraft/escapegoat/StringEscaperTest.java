@@ -4,6 +4,10 @@ import net.errorcraft.escapegoat.rule.CharacterEscapeRule;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
 class StringEscaperTest {
     public static final StringEscaper TEST_STRING_ESCAPER = StringEscaper.builder('a', "a")
         .suffix('b')
@@ -18,6 +22,18 @@ class StringEscaperTest {
         .rule(CharacterEscapeRule.ofAlwaysEscape('b', "b"))
         .build();
 
+    public static final StringEscaper TEST_STRING_ESCAPER_WITHOUT_SURROUNDER = StringEscaper.builder('a', "a")
+        .suffix('b')
+        .rule(CharacterEscapeRule.ofAlwaysEscape('x', "x"))
+        .build();
+
+    public static final StringEscaper TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER = StringEscaper.builder('a', "a")
+        .surrounder('\'', "'")
+        .surrounder('"', "\"")
+        .strictSurroundEscape()
+        .cheapestSurrounder()
+        .build();
+
     @Test
     void escapeWithEscapePrefixAsInputShouldEscapeValue() {
         String result = TEST_STRING_ESCAPER.escape("a");
@@ -54,6 +70,25 @@ class StringEscaperTest {
         Assertions.assertEquals("'z'", result);
     }
 
+    @Test
+    void escapeWithMixedInputShouldOnlyEscapeNecessaryValues() {
+        String result = TEST_STRING_ESCAPER.escape("zz'zz😊x");
+        Assertions.assertEquals("'zza'bzz😊axb'", result);
+    }
+
+    @Test
+    void escapeWithNothingToEscapeAndNoSurrounderShouldReturnSameInstance() {
+        String value = "zzz😊";
+        String result = TEST_STRING_ESCAPER_WITHOUT_SURROUNDER.escape(value);
+        Assertions.assertSame(value, result, "Escaper should return the input if nothing has to be escaped");
+    }
+
+    @Test
+    void escapeWithoutSurrounderShouldEscapeValue() {
+        String result = TEST_STRING_ESCAPER_WITHOUT_SURROUNDER.escape("zxz");
+        Assertions.assertEquals("zaxbz", result);
+    }
+
     @Test
     void escapeCodePointWithEscapePrefixAsInputShouldEscapeValue() {
         String result = TEST_STRING_ESCAPER.escapeCodePoint('a');
@@ -148,4 +183,234 @@ class StringEscaperTest {
         String result = Assertions.assertDoesNotThrow(() -> TEST_STRING_ESCAPER.unescape("'zzz'trailing", context));
         Assertions.assertEquals("zzz", result);
     }
+
+    @Test
+    void unescapeWithRegionOnlyUnescapesRegion() {
+        UnescapeContext context = new UnescapeContext(true, (readCodePoints, readChars) -> {});
+        String result = TEST_STRING_ESCAPER.unescape("yy'zaxbz'yy", 2, 9, context);
+        Assertions.assertEquals("zxz", result);
+    }
+
+    @Test
+    void unescapeCallsCallbackWithReadCodePointsAndChars() {
+        int[] read = new int[2];
+        UnescapeContext context = new UnescapeContext(false, (readCodePoints, readChars) -> {
+            read[0] = readCodePoints;
+            read[1] = readChars;
+        });
+        TEST_STRING_ESCAPER.unescape("'😊axb'trailing", context);
+        Assertions.assertArrayEquals(new int[] { 6, 7 }, read, "Callback must receive the amount of code points and chars read, including surrounders");
+    }
+
+    @Test
+    void unescapeWithoutSurrounderUnescapesWholeString() {
+        String result = TEST_STRING_ESCAPER_WITHOUT_SURROUNDER.unescape("zaxbz😊");
+        Assertions.assertEquals("zxz😊", result);
+    }
+
+    @Test
+    void escapeToAppendsToOutputAndReturnsWrittenChars() {
+        StringBuilder output = new StringBuilder("existing");
+        int written = TEST_STRING_ESCAPER.escapeTo("zxz", output);
+        Assertions.assertEquals("existing'zaxbz'", output.toString(), "Escaper must append to the existing output");
+        Assertions.assertEquals(7, written, "Escaper must return the amount of chars written");
+    }
+
+    @Test
+    void escapeToWithAppendableAppendsToOutput() {
+        StringWriter output = new StringWriter();
+        int written = Assertions.assertDoesNotThrow(() -> TEST_STRING_ESCAPER.escapeTo("😊'", output));
+        Assertions.assertEquals("'😊a'b'", output.toString());
+        Assertions.assertEquals(7, written, "Escaper must return the amount of chars written");
+    }
+
+    @Test
+    void unescapeToAppendsToOutputAndReturnsReadChars() {
+        StringBuilder output = new StringBuilder("existing");
+        UnescapeContext context = new UnescapeContext(false, (readCodePoints, readChars) -> {});
+        int read = TEST_STRING_ESCAPER.unescapeTo("'zaxbz'trailing", output, context);
+        Assertions.assertEquals("existingzxz", output.toString(), "Escaper must append to the existing output");
+        Assertions.assertEquals(7, read, "Escaper must return the amount of chars read");
+    }
+
+    @Test
+    void tryUnescapeWithValidInputReturnsValue() {
+        UnescapeResult result = TEST_STRING_ESCAPER.tryUnescape("'aab a'b axb y z'");
+        Assertions.assertTrue(result.isSuccess(), "Escaper must succeed for valid input");
+        Assertions.assertEquals("a ' x y z", result.value());
+    }
+
+    @Test
+    void tryUnescapeWithInvalidEscapeCharacterReturnsErrorAtEscapePrefix() {
+        UnescapeResult result = TEST_STRING_ESCAPER.tryUnescape("'zazb'");
+        Assertions.assertFalse(result.isSuccess(), "Escaper must fail for invalid input");
+        Assertions.assertEquals(UnescapeError.Kind.INVALID_ESCAPE_SEQUENCE, result.error().kind());
+        Assertions.assertEquals(2, result.error().position(), "Error must point at the escape prefix");
+    }
+
+    @Test
+    void tryUnescapeWithUnescapedCharacterReturnsError() {
+        UnescapeResult result = TEST_STRING_ESCAPER.tryUnescape("'zx'");
+        Assertions.assertEquals(UnescapeError.Kind.UNESCAPED_CHARACTER, result.error().kind());
+        Assertions.assertEquals(2, result.error().position());
+    }
+
+    @Test
+    void tryUnescapeWithUnclosedStringReturnsErrorAndDoesNotCallCallback() {
+        boolean[] called = {false};
+        UnescapeContext context = new UnescapeContext(true, (readCodePoints, readChars) -> called[0] = true);
+        UnescapeResult result = TEST_STRING_ESCAPER.tryUnescape("'zzz", context);
+        Assertions.assertEquals(UnescapeError.Kind.UNCLOSED_STRING, result.error().kind());
+        Assertions.assertFalse(called[0], "Escaper must not call the callback when unescaping failed");
+    }
+
+    @Test
+    void tryUnescapeWithTrailingCharactersCallsFailedCallback() {
+        UnescapeError[] failed = {null};
+        UnescapeContext context = new UnescapeContext(true, new UnescapeContext.Callback() {
+            @Override
+            public void apply(int readCodePoints, int readChars) {}
+
+            @Override
+            public void failed(UnescapeError error) {
+                failed[0] = error;
+            }
+        });
+        UnescapeResult result = TEST_STRING_ESCAPER.tryUnescape("'zz'z", context);
+        Assertions.assertSame(result.error(), failed[0], "Escaper must call the failed callback with the error it returns");
+    }
+
+    @Test
+    void validateWithValidValueReturnsReadChars() {
+        UnescapeContext context = new UnescapeContext(false, UnescapeContext.DEFAULT.callback());
+        Assertions.assertEquals(10, TEST_STRING_ESCAPER.validate("'zaxbza'b'zz", context), "Escaper must return the amount of chars up to the closing surrounder");
+    }
+
+    @Test
+    void validateWithInvalidValueThrowsException() {
+        Assertions.assertThrows(UnescapeStringException.class, () -> TEST_STRING_ESCAPER.validate("'zx'", UnescapeContext.DEFAULT), "Escaper must check the value like unescape");
+        Assertions.assertThrows(UnescapeStringException.class, () -> TEST_STRING_ESCAPER.validate("'zaxz'", UnescapeContext.DEFAULT), "Escaper must check the escape suffix like unescape");
+    }
+
+    @Test
+    void tryValidateReturnsErrorOfTryUnescape() {
+        for (String value : List.of("'zazb'", "'zx'", "'zzz", "zz'", "'zz'z")) {
+            UnescapeError error = TEST_STRING_ESCAPER.tryValidate(value, 0, value.length(), UnescapeContext.DEFAULT);
+            UnescapeError expected = TEST_STRING_ESCAPER.tryUnescape(value).error();
+            Assertions.assertEquals(expected.kind(), error.kind(), "Escaper must find the same error as unescape in " + value);
+            Assertions.assertEquals(expected.position(), error.position(), "Escaper must find the error at the same position as unescape in " + value);
+        }
+        Assertions.assertNull(TEST_STRING_ESCAPER.tryValidate("'zaxb'", 0, 6, UnescapeContext.DEFAULT));
+    }
+
+    @Test
+    void unescapeThrowsExceptionWithErrorOfTryUnescape() {
+        UnescapeStringException exception = Assertions.assertThrows(UnescapeStringException.class, () -> TEST_STRING_ESCAPER.unescape("'azb'"));
+        Assertions.assertEquals(TEST_STRING_ESCAPER.tryUnescape("'azb'").error().message(), exception.getMessage());
+    }
+
+    @Test
+    void escapeAllAboveThresholdKeepsOrder() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add("x" + i + "'");
+        }
+        List<String> escaped = TEST_STRING_ESCAPER.escapeAll(values, 7);
+        Assertions.assertEquals(values.size(), escaped.size(), "Escaper must return a value for every input");
+        for (int i = 0; i < values.size(); i++) {
+            Assertions.assertEquals(TEST_STRING_ESCAPER.escape(values.get(i)), escaped.get(i), "Escaper must keep the values in the order of the input");
+        }
+    }
+
+    @Test
+    void unescapeAllReportsErrorsPerValue() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i % 3 == 0 ? "'zx" + i + "'" : "'axb" + i + "'");
+        }
+        List<UnescapeResult> results = TEST_STRING_ESCAPER.unescapeAll(values, UnescapeContext.DEFAULT, 7);
+        Assertions.assertEquals(values.size(), results.size(), "Escaper must return a result for every input");
+        for (int i = 0; i < values.size(); i++) {
+            if (i % 3 == 0) {
+                Assertions.assertEquals(UnescapeError.Kind.UNESCAPED_CHARACTER, results.get(i).error().kind(), "Escaper must report the error of the value at the same index");
+            } else {
+                Assertions.assertEquals("x" + i, results.get(i).value(), "Escaper must keep the values in the order of the input");
+            }
+        }
+    }
+
+    @Test
+    void escapeAllWithInvalidThresholdThrowsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TEST_STRING_ESCAPER.escapeAll(List.of("x"), 0));
+    }
+
+    @Test
+    void escapeWithCheapestSurrounderUsesSurrounderWithShortestOutput() {
+        Assertions.assertEquals("\"it's\"", TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape("it's"), "Escaper must use the surrounder that does not need to be escaped");
+        Assertions.assertEquals("'zz \"hi\"'", TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape("zz \"hi\""), "Escaper must use the surrounder that does not need to be escaped");
+        Assertions.assertEquals("'\"a'\"'", TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape("\"'\""), "Escaper must use the surrounder with the least escapes");
+    }
+
+    @Test
+    void escapeWithCheapestSurrounderUsesFirstSurrounderOnTie() {
+        Assertions.assertEquals("'z'", TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape("z"), "Escaper must use the first surrounder if every surrounder is just as short");
+        Assertions.assertEquals("'\"a''", TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape("\"'"), "Escaper must use the first surrounder if every surrounder is just as short");
+    }
+
+    @Test
+    void escapeToWithCheapestSurrounderMatchesEscape() {
+        StringBuilder builder = new StringBuilder("x");
+        int written = TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escapeTo("it's", builder);
+        Assertions.assertEquals("x\"it's\"", builder.toString(), "Escaper must append the same value as escape");
+        Assertions.assertEquals(6, written);
+    }
+
+    @Test
+    void unescapeWithCheapestSurrounderRoundTrips() {
+        for (String value : List.of("it's", "zz \"hi\"", "\"'\"'", "a'b\"c")) {
+            Assertions.assertEquals(value, TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.unescape(TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape(value)), "Escaper must unescape what it escaped");
+        }
+    }
+
+    @Test
+    void escapeWithLongValueEscapesEveryCodePoint() {
+        String value = "zzzzzzzzzzzzzzzzxé'😊".repeat(20);
+        String expected = "'" + "zzzzzzzzzzzzzzzzaxbéa'b😊".repeat(20) + "'";
+        Assertions.assertEquals(expected, TEST_STRING_ESCAPER.escape(value), "Escaper must find every code point to escape in long values");
+        StringBuilder builder = new StringBuilder(value);
+        Assertions.assertEquals(expected, TEST_STRING_ESCAPER.escape(builder.toString()));
+        StringBuilder output = new StringBuilder();
+        TEST_STRING_ESCAPER.escapeTo(builder, output);
+        Assertions.assertEquals(expected, output.toString(), "Escaper must find every code point to escape in long builders");
+    }
+
+    @Test
+    void unescapeWithoutEscapeSequencesReturnsContent() {
+        Assertions.assertEquals("zz y", TEST_STRING_ESCAPER.unescape("'zz y'"));
+        String value = "zz y é😊".repeat(20);
+        Assertions.assertEquals(value, TEST_STRING_ESCAPER.unescape("'" + value + "'"), "Escaper must copy long runs without escape sequences as is");
+        Assertions.assertEquals("", TEST_STRING_ESCAPER.unescape("''"));
+    }
+
+    @Test
+    void unescapeWithLongValueUnescapesEverySequence() {
+        String value = "zzzzzzzzzzzzzzzzxé'😊".repeat(20);
+        String escaped = TEST_STRING_ESCAPER.escape(value);
+        Assertions.assertEquals(value, TEST_STRING_ESCAPER.unescape(escaped), "Escaper must find every escape sequence in long values");
+        Assertions.assertEquals(value, TEST_STRING_ESCAPER.unescape(new StringBuilder(escaped), 0, escaped.length(), UnescapeContext.DEFAULT), "Escaper must find every escape sequence in long builders");
+    }
+
+    @Test
+    void tryUnescapeWithLongValueAndUnescapedCharacterReturnsError() {
+        UnescapeResult result = TEST_STRING_ESCAPER.tryUnescape("'" + "z".repeat(100) + "x'");
+        Assertions.assertEquals(UnescapeError.Kind.UNESCAPED_CHARACTER, result.error().kind());
+        Assertions.assertEquals(101, result.error().position(), "Error must point at the unescaped character after a long run");
+    }
+
+    @Test
+    void escapeWithCheapestSurrounderAndLongValueCountsEveryCodePoint() {
+        String value = "zzzzzzzzzzzzzzzz'é\"😊'".repeat(20);
+        String expected = "\"" + "zzzzzzzzzzzzzzzz'éa\"😊'".repeat(20) + "\"";
+        Assertions.assertEquals(expected, TEST_STRING_ESCAPER_WITH_CHEAPEST_SURROUNDER.escape(value), "Escaper must count every code point to escape in long values");
+    }
 }
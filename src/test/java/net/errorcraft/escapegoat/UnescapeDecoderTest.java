@@ -0,0 +1,95 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+class UnescapeDecoderTest {
+    @Test
+    void decodeWithEverySplitMatchesUnescape() {
+        String value = "'a\\u{1F600}b😀c\\n\\u000a'";
+        String expected = StringEscapers.SNBT.unescape(value);
+        UnescapeDecoder decoder = new UnescapeDecoder(StringEscapers.SNBT);
+        for (int split = 0; split <= value.length(); split++) {
+            StringBuilder output = new StringBuilder();
+            decoder.reset();
+            Assertions.assertFalse(decoder.decode(CharBuffer.wrap(value, 0, split), output, false), "Decoder should not be done before the closing surrounder");
+            decoder.decode(CharBuffer.wrap(value, split, value.length()), output, false);
+            Assertions.assertTrue(decoder.decode(CharBuffer.allocate(0), output, true));
+            Assertions.assertNull(decoder.error(), "Decoder should not fail when split at " + split);
+            Assertions.assertEquals(expected, output.toString(), "Decoder should unescape like the escaper when split at " + split);
+        }
+    }
+
+    @Test
+    void decodeOneCharAtATimeMatchesUnescape() {
+        String value = "'zaxbzayb😀'";
+        Assertions.assertEquals("zxzy😀", decodeInChunks(new UnescapeDecoder(StringEscaperTest.TEST_STRING_ESCAPER), value, 1), "Decoder should keep escape suffixes and surrogate pairs split across chunks");
+    }
+
+    @Test
+    void decodeWithInvalidSequenceSplitAfterPrefixReturnsSameErrorAsTryUnescape() {
+        String value = "'zzazb'";
+        UnescapeError expected = StringEscaperTest.TEST_STRING_ESCAPER.tryUnescape(value).error();
+        UnescapeDecoder decoder = new UnescapeDecoder(StringEscaperTest.TEST_STRING_ESCAPER);
+        StringBuilder output = new StringBuilder();
+        decoder.decode(CharBuffer.wrap(value, 0, 4), output, false);
+        decoder.decode(CharBuffer.wrap(value, 4, value.length()), output, true);
+        Assertions.assertEquals(expected.kind(), decoder.error().kind());
+        Assertions.assertEquals(expected.position(), decoder.error().position(), "Decoder should point at the escape prefix at the end of the previous chunk");
+        Assertions.assertEquals(expected.message(), decoder.error().message());
+    }
+
+    @Test
+    void decodeWithTrailingCharsAllowedLeavesThemInInput() {
+        UnescapeDecoder decoder = new UnescapeDecoder(StringEscaperTest.TEST_STRING_ESCAPER, new UnescapeContext(false, UnescapeContext.DEFAULT.callback()));
+        CharBuffer input = CharBuffer.wrap("'zz'next");
+        StringBuilder output = new StringBuilder();
+        Assertions.assertTrue(decoder.decode(input, output, false), "Decoder should be done at the closing surrounder");
+        Assertions.assertEquals("zz", output.toString());
+        Assertions.assertEquals("next", input.toString(), "Decoder should leave the chars after the closing surrounder in the input");
+    }
+
+    @Test
+    void decodeWithTrailingCharsInLaterChunkFails() {
+        UnescapeDecoder decoder = new UnescapeDecoder(StringEscaperTest.TEST_STRING_ESCAPER);
+        StringBuilder output = new StringBuilder();
+        Assertions.assertFalse(decoder.decode(CharBuffer.wrap("'zz'"), output, false), "Decoder should wait for more input before checking for trailing chars");
+        Assertions.assertTrue(decoder.decode(CharBuffer.wrap("z"), output, false));
+        Assertions.assertEquals(UnescapeError.Kind.TRAILING_CHARACTERS, decoder.error().kind());
+    }
+
+    @Test
+    void decodeCallsCallbackWhenDone() {
+        int[] read = {-1, -1};
+        UnescapeError[] failed = {null};
+        UnescapeContext context = new UnescapeContext(true, new UnescapeContext.Callback() {
+            @Override
+            public void apply(int readCodePoints, int readChars) {
+                read[0] = readCodePoints;
+                read[1] = readChars;
+            }
+
+            @Override
+            public void failed(UnescapeError error) {
+                failed[0] = error;
+            }
+        });
+        UnescapeDecoder decoder = new UnescapeDecoder(StringEscaperTest.TEST_STRING_ESCAPER, context);
+        decodeInChunks(decoder, "'zaxb'", 2);
+        Assertions.assertArrayEquals(new int[] {6, 6}, read, "Decoder should call the callback with the amount of read code points and chars");
+        Assertions.assertNull(failed[0]);
+        decodeInChunks(decoder.reset(), "'za", 2);
+        Assertions.assertEquals(UnescapeError.Kind.INCOMPLETE_ESCAPE_SEQUENCE, failed[0].kind(), "Decoder should call the callback with the error");
+    }
+
+    private static String decodeInChunks(UnescapeDecoder decoder, String value, int chunkSize) {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < value.length() && !decoder.isDone(); i += chunkSize) {
+            decoder.decode(CharBuffer.wrap(value, i, Math.min(value.length(), i + chunkSize)), output, false);
+        }
+        decoder.decode(CharBuffer.allocate(0), output, true);
+        return output.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class UnescapeErrorTest {
+    @Test
+    void messageWithMutableValueUsesValueAtCreation() {
+        StringBuilder value = new StringBuilder("'zx'");
+        UnescapeError error = UnescapeError.unescapedCharacter(2, 'x', value, 2, value.length());
+        value.setCharAt(2, 'y');
+        Assertions.assertEquals("Character x with code point 120 should be escaped at position 2: x'", error.message(), "Error should not be affected by changes to the value after it was created");
+    }
+
+    @Test
+    void messageWithCauseIncludesMessageOfCause() {
+        UnescapeError cause = UnescapeError.codePointTooLarge(2, 0x10FFFF, 0x110000);
+        UnescapeError error = UnescapeError.invalidEscapeSequence(1, "'\\U00110000'", 1, 12, cause);
+        Assertions.assertEquals("Invalid escape sequence \\U00... at position 1: Code point must be at most 1114111: 1114112", error.message());
+    }
+
+    @Test
+    void causePositionOfRegionIsRelativeToRegionStart() {
+        String value = "'\\u{110000}'";
+        UnescapeError error = StringEscapers.SNBT.tryUnescape(value, UnescapeContext.DEFAULT).error();
+        UnescapeError regionError = StringEscapers.SNBT.tryUnescape("ab " + value, 3, value.length() + 3, UnescapeContext.DEFAULT).error();
+        Assertions.assertEquals(error.position(), regionError.position());
+        Assertions.assertNotNull(regionError.cause());
+        Assertions.assertEquals(error.cause().position(), regionError.cause().position(), "Cause should have a position relative to the start of the region, like the error itself");
+        Assertions.assertEquals(error.message(), regionError.message());
+    }
+
+    @Test
+    void exceptionHasNoStackTrace() {
+        UnescapeStringException exception = UnescapeError.missingSurrounder(0).toException();
+        Assertions.assertEquals(0, exception.getStackTrace().length, "Exception should not fill in its stack trace");
+        Assertions.assertEquals("Expected surrounder to start a string", exception.getMessage());
+    }
+}
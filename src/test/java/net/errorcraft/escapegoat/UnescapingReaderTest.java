@@ -0,0 +1,74 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+class UnescapingReaderTest {
+    @Test
+    void readUnescapesValue() throws IOException {
+        Assertions.assertEquals("x'abz", readAll(new UnescapingReader(new StringReader("'axba'baabbz'"), StringEscaperTest.TEST_STRING_ESCAPER)), "Reader should unescape the string read from the underlying reader");
+    }
+
+    @Test
+    void readWithEscapeSequenceSplitAcrossReadsUnescapesValue() throws IOException {
+        Reader in = new OneCharReader(new StringReader("'za'bz'"));
+        Assertions.assertEquals("z'z", readAll(new UnescapingReader(in, StringEscaperTest.TEST_STRING_ESCAPER)), "Reader should unescape escape sequences split across reads");
+    }
+
+    @Test
+    void readWithLongValueMatchesUnescape() throws IOException {
+        String value = "x'abz".repeat(5000);
+        String escaped = StringEscaperTest.TEST_STRING_ESCAPER.escape(value);
+        Assertions.assertEquals(value, readAll(new UnescapingReader(new StringReader(escaped), StringEscaperTest.TEST_STRING_ESCAPER)), "Reader should unescape values longer than its buffer");
+    }
+
+    @Test
+    void readWithTrailingCodePointsThrowsException() {
+        Reader reader = new UnescapingReader(new StringReader("'z'z"), StringEscaperTest.TEST_STRING_ESCAPER);
+        Assertions.assertThrows(UnescapeStringException.class, () -> readAll(reader), "Reader should not allow code points after the closing surrounder");
+    }
+
+    @Test
+    void readWithTrailingCodePointsAllowedStopsAtClosingSurrounder() throws IOException {
+        Reader reader = new UnescapingReader(new StringReader("'z'z"), StringEscaperTest.TEST_STRING_ESCAPER, new UnescapeContext(false, UnescapeContext.DEFAULT.callback()));
+        Assertions.assertEquals("z", readAll(reader), "Reader should stop at the closing surrounder");
+    }
+
+    @Test
+    void readWithUnclosedStringThrowsException() {
+        Reader reader = new UnescapingReader(new StringReader("'z"), StringEscaperTest.TEST_STRING_ESCAPER);
+        Assertions.assertThrows(UnescapeStringException.class, () -> readAll(reader), "Reader should not allow strings without closing surrounder");
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[16];
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            result.append(buffer, 0, read);
+        }
+        return result.toString();
+    }
+
+    private static class OneCharReader extends Reader {
+        private final Reader in;
+
+        private OneCharReader(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return this.in.read(cbuf, off, Math.min(len, 1));
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+}
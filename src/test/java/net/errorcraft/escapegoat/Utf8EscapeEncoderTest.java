@@ -0,0 +1,62 @@
+package net.errorcraft.escapegoat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+class Utf8EscapeEncoderTest {
+    @Test
+    void encodeMatchesEscapeEncodedAsUtf8() {
+        String value = "x'abz é😊";
+        byte[] expected = StringEscaperTest.TEST_STRING_ESCAPER.escape(value).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer output = ByteBuffer.allocate(64);
+        boolean done = new Utf8EscapeEncoder(StringEscaperTest.TEST_STRING_ESCAPER).reset(value).encode(output);
+        Assertions.assertTrue(done, "Encoder should finish when the output is large enough");
+        Assertions.assertArrayEquals(expected, Arrays.copyOf(output.array(), output.position()), "Encoder should write the escaped value as UTF-8");
+    }
+
+    @Test
+    void encodeWithFullOutputContinuesWhereItStopped() {
+        String value = "x'abz é😊";
+        byte[] expected = StringEscaperTest.TEST_STRING_ESCAPER.escape(value).getBytes(StandardCharsets.UTF_8);
+        Utf8EscapeEncoder encoder = new Utf8EscapeEncoder(StringEscaperTest.TEST_STRING_ESCAPER).reset(value);
+        ByteBuffer result = ByteBuffer.allocate(64);
+        ByteBuffer output = ByteBuffer.allocateDirect(4);
+        boolean done;
+        do {
+            done = encoder.encode(output);
+            output.flip();
+            result.put(output);
+            output.clear();
+        } while (!done);
+        Assertions.assertArrayEquals(expected, Arrays.copyOf(result.array(), result.position()), "Encoder should continue after the output ran out of room");
+    }
+
+    @Test
+    void encodeDoesNotSplitEscapeSequences() {
+        Utf8EscapeEncoder encoder = new Utf8EscapeEncoder(StringEscaperTest.TEST_STRING_ESCAPER).reset("x");
+        byte[] output = new byte[3];
+        int written = encoder.encode(output, 0, output.length);
+        Assertions.assertEquals(1, written, "Encoder should only write the surrounder when the escape sequence does not fit");
+        Assertions.assertFalse(encoder.isDone(), "Encoder should not be done when the output ran out of room");
+    }
+
+    @Test
+    void encodeWithSupplementaryCodePointWritesFourBytes() {
+        // Character: 𝠃, its lowest 16 bits are the same as a high surrogate
+        String value = Character.toString(0x1D803);
+        byte[] output = new byte[8];
+        int written = new Utf8EscapeEncoder(StringEscaperTest.TEST_STRING_ESCAPER_WITHOUT_SURROUNDER).reset(value).encode(output, 0, output.length);
+        Assertions.assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), Arrays.copyOf(output, written), "Encoder should write code points outside of the BMP as four bytes");
+    }
+
+    @Test
+    void encodeWithUnpairedSurrogateWritesReplacement() {
+        byte[] output = new byte[8];
+        int written = new Utf8EscapeEncoder(StringEscaperTest.TEST_STRING_ESCAPER_WITHOUT_SURROUNDER).reset("\uD83Dz").encode(output, 0, output.length);
+        Assertions.assertArrayEquals("?z".getBytes(StandardCharsets.UTF_8), Arrays.copyOf(output, written), "Encoder should replace unpaired surrogates like String.getBytes");
+    }
+}
@@ -1,6 +1,7 @@
 package net.errorcraft.escapegoat.rule;
 
 import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -72,4 +73,22 @@ class CharacterEscapeRuleTest {
     void shouldBeEscapedOptionalEscapeWithInvalidCodePointReturnsFalse() {
         Assertions.assertFalse(OPTIONAL_ESCAPE_TEST_RULE.shouldBeEscaped(INVALID_ESCAPE_CODE_POINT, null), "Rule should not escape the specified code point");
     }
+
+    @Test
+    void unescapeToWithValidStringAppendsCodePointToOutput() {
+        CodePointReader reader = new CodePointReader(ESCAPED);
+        StringBuilder output = new StringBuilder("existing");
+        boolean unescaped = ALWAYS_ESCAPE_TEST_RULE.unescapeTo(reader, EscapeRule.NO_SURROUNDER, CodePointSink.of(output));
+        Assertions.assertTrue(unescaped, "Rule should unescape the specified string");
+        Assertions.assertEquals("existing" + ESCAPE_CODE_POINT_AS_STRING, output.toString(), "Rule should append the code point to the output");
+    }
+
+    @Test
+    void unescapeToWithInvalidStringDoesNotAppendToOutput() {
+        CodePointReader reader = new CodePointReader(INVALID_ESCAPED);
+        StringBuilder output = new StringBuilder();
+        boolean unescaped = ALWAYS_ESCAPE_TEST_RULE.unescapeTo(reader, EscapeRule.NO_SURROUNDER, CodePointSink.of(output));
+        Assertions.assertFalse(unescaped, "Rule should not unescape the specified string");
+        Assertions.assertEquals(0, output.length(), "Rule should not append anything to the output");
+    }
 }
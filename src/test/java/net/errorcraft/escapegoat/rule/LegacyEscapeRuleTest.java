@@ -0,0 +1,62 @@
+package net.errorcraft.escapegoat.rule;
+
+import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
+import net.errorcraft.escapegoat.StringEscaper;
+import net.errorcraft.escapegoat.UnescapeStringException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Modifier;
+
+class LegacyEscapeRuleTest {
+    // Only implements the allocating methods, like rules written before the sink methods existed
+    private static final LegacyEscapeRule ALLOCATING_RULE = new LegacyEscapeRule() {
+        @Override
+        public String[] escaped(int codePoint, Integer surrounderCodePoint) {
+            return codePoint == '!' ? new String[] { "e" } : null;
+        }
+
+        @Override
+        public String unescaped(CodePointReader reader, Integer surrounderCodePoint) {
+            return reader.trySkipNext("e") ? "!" : null;
+        }
+
+        @Override
+        public boolean shouldBeEscaped(int codePoint, Integer surrounderCodePoint) {
+            return codePoint == '!';
+        }
+    };
+
+    private static final StringEscaper TEST_STRING_ESCAPER = StringEscaper.builder('\\', "\\")
+        .surrounder('\'', "'")
+        .rule(ALLOCATING_RULE)
+        .build();
+
+    @Test
+    void escapeWithAllocatingRuleEscapesValue() {
+        Assertions.assertEquals("'a\\eb'", TEST_STRING_ESCAPER.escape("a!b"), "Escaper should use rules that only implement the allocating methods");
+    }
+
+    @Test
+    void unescapeWithAllocatingRuleUnescapesValue() throws UnescapeStringException {
+        Assertions.assertEquals("a!b", TEST_STRING_ESCAPER.unescape("'a\\eb'"), "Escaper should use rules that only implement the allocating methods");
+    }
+
+    @Test
+    void sinkMethodsWithAllocatingRuleUseAllocatingMethods() {
+        Assertions.assertTrue(ALLOCATING_RULE.shouldBeEscaped('!', EscapeRule.NO_SURROUNDER));
+        Assertions.assertEquals("", ALLOCATING_RULE.prefix(EscapeRule.NO_SURROUNDER), "Rule should be tried for every escape sequence by default");
+    }
+
+    @Test
+    void ruleWithoutEitherMethodIsRejectedByCompiler() throws NoSuchMethodException {
+        // Only one of each pair of methods has a default, so a rule that overrides neither does not compile instead of calling back and forth forever
+        Assertions.assertTrue(Modifier.isAbstract(EscapeRule.class.getDeclaredMethod("escapeTo", int.class, int.class, EscapeRule.SequenceSink.class).getModifiers()));
+        Assertions.assertTrue(Modifier.isAbstract(EscapeRule.class.getDeclaredMethod("unescapeTo", CodePointReader.class, int.class, CodePointSink.class).getModifiers()));
+        Assertions.assertTrue(Modifier.isAbstract(EscapeRule.class.getDeclaredMethod("shouldBeEscaped", int.class, int.class).getModifiers()));
+        Assertions.assertTrue(Modifier.isAbstract(LegacyEscapeRule.class.getDeclaredMethod("escaped", int.class, Integer.class).getModifiers()));
+        Assertions.assertTrue(Modifier.isAbstract(LegacyEscapeRule.class.getDeclaredMethod("unescaped", CodePointReader.class, Integer.class).getModifiers()));
+        Assertions.assertTrue(Modifier.isAbstract(LegacyEscapeRule.class.getDeclaredMethod("shouldBeEscaped", int.class, Integer.class).getModifiers()));
+    }
+}
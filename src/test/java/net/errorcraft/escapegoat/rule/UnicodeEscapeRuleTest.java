@@ -1,6 +1,7 @@
 package net.errorcraft.escapegoat.rule;
 
 import net.errorcraft.escapegoat.CodePointReader;
+import net.errorcraft.escapegoat.CodePointSink;
 import net.errorcraft.escapegoat.UnescapeStringException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
@@ -106,6 +107,48 @@ class UnicodeEscapeRuleTest {
         Assertions.assertFalse(TEST_RULE.shouldBeEscaped(INVALID_ESCAPE_CODE_POINT, null), "Rule should not escape the specified code point");
     }
 
+    @Test
+    void escapeToWithComplicatedCodePointWritesSequencePerUnit() {
+        StringBuilder output = new StringBuilder();
+        boolean escaped = TEST_RULE.escapeTo(SMP_ESCAPE_CODE_POINT, EscapeRule.NO_SURROUNDER, new EscapeRule.SequenceSink() {
+            @Override
+            public void startSequence() {
+                output.append('[');
+            }
+
+            @Override
+            public void endSequence() {
+                output.append(']');
+            }
+
+            @Override
+            public void append(char c) {
+                output.append(c);
+            }
+
+            @Override
+            public void appendCodePoint(int codePoint) {
+                output.appendCodePoint(codePoint);
+            }
+
+            @Override
+            public void append(CharSequence value, int start, int end) {
+                output.append(value, start, end);
+            }
+        });
+        Assertions.assertTrue(escaped, "Rule should escape the specified code point");
+        Assertions.assertEquals("[" + SMP_ESCAPE_CODE_POINT_AS_UTF16_HEX_STRINGS[0] + "][" + SMP_ESCAPE_CODE_POINT_AS_UTF16_HEX_STRINGS[1] + "]", output.toString(), "Rule should write every unit as its own sequence");
+    }
+
+    @Test
+    void unescapeToWithValidStringAppendsUnitToOutput() {
+        CodePointReader reader = new CodePointReader(ESCAPED);
+        StringBuilder output = new StringBuilder();
+        boolean unescaped = TEST_RULE.unescapeTo(reader, EscapeRule.NO_SURROUNDER, CodePointSink.of(output));
+        Assertions.assertTrue(unescaped, "Rule should unescape the specified string");
+        Assertions.assertEquals(BMP_ESCAPE_CODE_POINT_AS_STRING, output.toString(), "Rule should append the unescaped value to the output");
+    }
+
     @Nested
     class TransformationTest {
         private static final int BMP_ESCAPE_CODE_POINT = 'x';
@@ -155,6 +198,31 @@ class UnicodeEscapeRuleTest {
             Assertions.assertArrayEquals(SMP_ESCAPE_CODE_POINT_AS_STRINGIFIED_UTF32_ARRAY, escaped, "UTF-32 Transformation should escape the character correctly");
         }
 
+        @Test
+        void escapeUtf8IntoArrayWritesEveryByte() {
+            int[] units = new int[UnicodeEscapeRule.Transformation.MAX_UNITS];
+            int count = UnicodeEscapeRule.Transformation.UTF8.escape(SMP_ESCAPE_CODE_POINT, units);
+            Assertions.assertEquals(4, count, "UTF-8 Transformation should return the amount of bytes");
+            Assertions.assertArrayEquals(new int[] { 0xF0, 0x9F, 0x98, 0x8A }, units, "UTF-8 Transformation should write every byte into the array");
+        }
+
+        @Test
+        void escapeUtf16IntoArrayWritesEverySurrogate() {
+            int[] units = new int[UnicodeEscapeRule.Transformation.MAX_UNITS];
+            int count = UnicodeEscapeRule.Transformation.UTF16.escape(SMP_ESCAPE_CODE_POINT, units);
+            Assertions.assertEquals(2, count, "UTF-16 Transformation should return the amount of chars");
+            Assertions.assertEquals(0xD83D, units[0], "UTF-16 Transformation should write the high surrogate first");
+            Assertions.assertEquals(0xDE0A, units[1], "UTF-16 Transformation should write the low surrogate second");
+        }
+
+        @Test
+        void escapeUtf8WithUnpairedSurrogateWritesReplacement() {
+            int[] units = new int[UnicodeEscapeRule.Transformation.MAX_UNITS];
+            int count = UnicodeEscapeRule.Transformation.UTF8.escape(0xD800, units);
+            Assertions.assertEquals(1, count, "UTF-8 Transformation should write a single byte for an unpaired surrogate");
+            Assertions.assertEquals('?', units[0], "UTF-8 Transformation should replace an unpaired surrogate like String.getBytes");
+        }
+
         @Test
         void unescapeUtf8UnescapesCorrectly() {
             String unescaped = UnicodeEscapeRule.Transformation.UTF8.unescape(BMP_ESCAPE_CODE_POINT);
@@ -226,5 +294,34 @@ class UnicodeEscapeRuleTest {
             int read = UnicodeEscapeRule.Format.HEXADECIMAL.read(reader, 0, Integer.MAX_VALUE);
             Assertions.assertEquals(100, read, "Hexadecimal Format should read the string correctly");
         }
+
+        @Test
+        void escapeToPadsWithZeros() {
+            StringBuilder output = new StringBuilder();
+            UnicodeEscapeRule.Format.HEXADECIMAL.escapeTo(0x64, 4, CodePointSink.of(output));
+            Assertions.assertEquals("0064", output.toString(), "Format should pad the digits with zeros up to the minimum length");
+        }
+
+        @Test
+        void readHexadecimalWithUppercaseDigitsConvertsCorrectly() {
+            CodePointReader reader = new CodePointReader("1F60Azzz");
+            int read = UnicodeEscapeRule.Format.HEXADECIMAL.read(reader, 0, Integer.MAX_VALUE);
+            Assertions.assertEquals(0x1F60A, read, "Hexadecimal Format should read uppercase digits");
+            Assertions.assertEquals(5, reader.index(), "Format should only advance past the digits");
+        }
+
+        @Test
+        void readStopsAtMaxLength() {
+            CodePointReader reader = new CodePointReader("12345");
+            int read = UnicodeEscapeRule.Format.DECIMAL.read(reader, 0, 3);
+            Assertions.assertEquals(123, read, "Format should not read more than the maximum length");
+            Assertions.assertEquals(3, reader.index(), "Format should only advance past the read digits");
+        }
+
+        @Test
+        void readAboveMaxValueWithUnlimitedLengthThrowsException() {
+            CodePointReader reader = new CodePointReader("1".repeat(100));
+            Assertions.assertThrows(UnescapeStringException.class, () -> UnicodeEscapeRule.Format.HEXADECIMAL.read(reader, 0, Integer.MAX_VALUE, Character.MAX_CODE_POINT), "Format should fail instead of overflowing");
+        }
     }
 }
@@ -0,0 +1,71 @@
+package net.errorcraft.escapegoat.scan;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class AsciiScannerTest {
+    private static final boolean[] STOPS = new boolean[AsciiScanners.ASCII_SIZE];
+    private static final String ALPHABET = "abcxyz \t\n\"'\\\u007féあ😊";
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            STOPS[c] = true;
+        }
+        STOPS['"'] = true;
+        STOPS['\''] = true;
+        STOPS['\\'] = true;
+        STOPS[0x7F] = true;
+    }
+
+    @Test
+    void scalarScanStopsAtStopCharsAndNonAscii() {
+        AsciiScanner scanner = new ScalarAsciiScanner(STOPS);
+        char[] chars = "abc'de".toCharArray();
+        Assertions.assertEquals(3, scanner.scan(chars, 0, chars.length), "Scanner should stop at a stop char");
+        Assertions.assertEquals(6, scanner.scan(chars, 4, chars.length), "Scanner should return the end if there are no stop chars");
+        chars = "abcéd".toCharArray();
+        Assertions.assertEquals(3, scanner.scan(chars, 0, chars.length), "Scanner should stop at a char that is not ASCII");
+        Assertions.assertEquals(2, scanner.scan(chars, 0, 2), "Scanner should not look past the end");
+    }
+
+    @Test
+    void vectorScanMatchesScalarScan() {
+        Assumptions.assumeTrue(AsciiScanners.isVectorAvailable(), "The Vector API module is not available");
+        AsciiScanner scalar = new ScalarAsciiScanner(STOPS);
+        AsciiScanner vector = VectorAsciiScanner.of(STOPS);
+        Assertions.assertNotNull(vector, "Vector scanner should support a few stop chars besides the control chars");
+        Random random = new Random(0);
+        for (int i = 0; i < 2000; i++) {
+            char[] chars = randomChars(random, random.nextInt(200));
+            int index = chars.length == 0 ? 0 : random.nextInt(chars.length);
+            Assertions.assertEquals(scalar.scan(chars, index, chars.length), vector.scan(chars, index, chars.length), "Vector scanner should stop at the same index as the scalar scanner for " + new String(chars));
+        }
+    }
+
+    @Test
+    void vectorScannerWithTooManyStopCharsIsNotCreated() {
+        Assumptions.assumeTrue(AsciiScanners.isVectorAvailable(), "The Vector API module is not available");
+        boolean[] stops = new boolean[AsciiScanners.ASCII_SIZE];
+        for (int c = 'a'; c <= 'z'; c++) {
+            stops[c] = true;
+        }
+        Assertions.assertNull(VectorAsciiScanner.of(stops), "Vector scanner should not be created when the scalar scanner is just as fast");
+    }
+
+    // Mostly plain chars, so the scanner has long runs to skip over
+    private static char[] randomChars(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            if (random.nextInt(16) == 0) {
+                int codePoint = ALPHABET.codePointAt(ALPHABET.offsetByCodePoints(0, random.nextInt(ALPHABET.codePointCount(0, ALPHABET.length()))));
+                builder.appendCodePoint(codePoint);
+            } else {
+                builder.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        return builder.toString().toCharArray();
+    }
+}